@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Minimal requests and responses for calling a servlet in-process, without a servlet container or network.
+ *
+ * <p>
+ * The servlet is assumed to be mapped at <code>/*</code> of the root context, as in
+ * {@link aasmyasset.module.DeviceContext DeviceContext}. Only the methods used by BaSyx' and this
+ * application's servlets are implemented; all others throw an {@link UnsupportedOperationException}.
+ */
+final class InProcessHttp {
+
+    private InProcessHttp() {
+    }
+
+    /**
+     * Sends a request to a servlet.
+     *
+     * @param servlet The servlet to call.
+     * @param request The request, which can be sent any number of times.
+     *
+     * @return The status code of the response. The body is discarded.
+     */
+    static int send(HttpServlet servlet, Request request) throws Exception {
+        Response response = new Response();
+        servlet.service(request, response);
+        return response.getStatus();
+    }
+
+    /**
+     * A request with an optional query string and JSON body.
+     */
+    static final class Request extends HttpServletRequestWrapper {
+
+        private final String method;
+        private final String path;
+        private final String query;
+        private final Map<String, String[]> parameters = new LinkedHashMap<>();
+        private final byte[] body;
+
+        /**
+         * Creates a new request.
+         *
+         * @param method The HTTP method.
+         * @param uri    The path, optionally followed by a query string, e.g. <code>/aas?x=1</code>.
+         * @param body   The JSON body, or <code>null</code>.
+         */
+        Request(String method, String uri, String body) {
+            super(unsupported(HttpServletRequest.class));
+            this.method = method;
+
+            int queryIndex = uri.indexOf('?');
+            this.path = queryIndex < 0 ? uri : uri.substring(0, queryIndex);
+            this.query = queryIndex < 0 ? null : uri.substring(queryIndex + 1);
+            if (query != null) {
+                for (String parameter : query.split("&")) {
+                    int index = parameter.indexOf('=');
+                    parameters.put(index < 0 ? parameter : parameter.substring(0, index),
+                            new String[] { index < 0 ? "" : parameter.substring(index + 1) });
+                }
+            }
+            this.body = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return path;
+        }
+
+        @Override
+        public String getContextPath() {
+            return "";
+        }
+
+        @Override
+        public String getServletPath() {
+            return "";
+        }
+
+        @Override
+        public String getPathInfo() {
+            return path;
+        }
+
+        @Override
+        public String getQueryString() {
+            return query;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return parameters.get(name);
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return values == null ? null : values[0];
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return Collections.unmodifiableMap(parameters);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return Collections.emptyEnumeration();
+        }
+
+        @Override
+        public String getContentType() {
+            return body.length == 0 ? null : "application/json";
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return "UTF-8";
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+    /**
+     * A response which keeps the status code and discards the body.
+     */
+    static final class Response extends HttpServletResponseWrapper {
+
+        private final ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                // Discarded.
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // Discarded.
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        private int status = SC_OK;
+        private String contentType;
+        private PrintWriter writer;
+
+        Response() {
+            super(unsupported(HttpServletResponse.class));
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            status = sc;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void sendError(int sc) {
+            status = sc;
+        }
+
+        @Override
+        public void sendError(int sc, String msg) {
+            status = sc;
+        }
+
+        @Override
+        public void setContentType(String type) {
+            contentType = type;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+            // Always UTF-8.
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return "UTF-8";
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            // Not checked.
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // Not checked.
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            // Headers aren't kept.
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            // Headers aren't kept.
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unsupported(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(String.format("%s.%s isn't supported in-process.", type
+                    .getSimpleName(), method.getName()));
+        });
+    }
+}
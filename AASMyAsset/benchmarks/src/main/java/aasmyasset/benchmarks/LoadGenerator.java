@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import aasmyasset.benchmarks.PostmanCollection.Request;
+import aasmyasset.module.AASServer;
+
+/**
+ * Replays the requests of a Postman collection against a running AAS server at a fixed rate and reports the
+ * throughput and the latency percentiles.
+ *
+ * <p>
+ * The load is open-loop: requests are started on a fixed schedule, whether or not earlier ones have been
+ * answered, the same as independent clients would. The requests of the collection are sent in turn. If all
+ * connections are busy, a request waits for one, and this wait is part of its latency. Every latency is
+ * measured from the time the request was scheduled, not from the time it was actually sent, so a stalled
+ * server can't hide its stall by holding back the requests which would have measured it ("coordinated
+ * omission"). The uncorrected service times are reported as well for comparison.
+ *
+ * <p>
+ * Start the AAS server, then run e.g.
+ *
+ * <pre>
+ * <code>
+ * java -cp target/benchmarks.jar aasmyasset.benchmarks.LoadGenerator -r 500 -n 32 -d 60
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * in the <code>benchmarks</code> directory. This replays <code>PostmanQuerries/HelloWorld.postman_collection.json</code>;
+ * pass another collection with <code>-c</code>.
+ *
+ * <p>
+ * With <code>--start-server</code>, the server is started in the same JVM instead, with the settings of the
+ * working directory. It then shares the CPU with the load generator.
+ */
+public final class LoadGenerator {
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99, 100 };
+
+    /**
+     * The collection replayed if none is given, relative to the <code>benchmarks</code> directory.
+     */
+    private static final String DEFAULT_COLLECTION = "../../PostmanQuerries/HelloWorld.postman_collection.json";
+
+    private final List<Request> requests;
+    private final double rate;
+    private final int connections;
+
+    private LoadGenerator(List<Request> requests, double rate, int connections) {
+        this.requests = requests;
+        this.rate = rate;
+        this.connections = connections;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        options.addOption("c", "collection", true, "The Postman collection to replay. Default: " + DEFAULT_COLLECTION
+                + ".");
+        options.addOption("t", "target", true, "Send the requests to this server instead, e.g. http://host:11111.");
+        options.addOption("i", "include", true, "Only send the requests whose names match this regular expression.");
+        options.addOption("r", "rate", true, "Requests started per second. Default: 100.");
+        options.addOption("n", "connections", true, "Maximum number of concurrent requests. Default: 16.");
+        options.addOption("d", "duration", true, "Seconds to measure. Default: 30.");
+        options.addOption("w", "warmup", true, "Seconds to send requests before measuring. Default: 5.");
+        options.addOption("s", "start-server", false, "Start the AAS server in this JVM first.");
+        options.addOption("h", "help", false, "Print this help.");
+
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            cmd = null;
+        }
+        if (cmd == null || cmd.hasOption("h")) {
+            new HelpFormatter().printHelp("java -cp benchmarks.jar " + LoadGenerator.class.getName(), options);
+            System.exit(cmd != null && cmd.hasOption("h") ? 0 : 1);
+            return;
+        }
+
+        double rate = Double.parseDouble(cmd.getOptionValue("r", "100"));
+        int connections = Integer.parseInt(cmd.getOptionValue("n", "16"));
+        int duration = Integer.parseInt(cmd.getOptionValue("d", "30"));
+        int warmup = Integer.parseInt(cmd.getOptionValue("w", "5"));
+        if (rate <= 0 || connections <= 0 || duration <= 0 || warmup < 0) {
+            throw new IllegalArgumentException("The rate, connections and duration must be positive.");
+        }
+
+        PostmanCollection collection = PostmanCollection.read(Paths.get(cmd.getOptionValue("c", DEFAULT_COLLECTION)));
+        Pattern include = cmd.hasOption("i") ? Pattern.compile(cmd.getOptionValue("i")) : null;
+        List<Request> requests = new ArrayList<>();
+        for (Request request : collection.getRequests()) {
+            if (include == null || include.matcher(request.getName()).find()) {
+                requests.add(cmd.hasOption("t") ? request.withTarget(cmd.getOptionValue("t")) : request);
+            }
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Collection '%s' has no matching requests.",
+                    collection.getName()));
+        }
+
+        if (cmd.hasOption("s")) {
+            AASServer.main(new String[0]);
+        }
+
+        // The JDK keeps only 5 idle connections per server by default.
+        System.setProperty("http.maxConnections", Integer.toString(connections));
+
+        LoadGenerator generator = new LoadGenerator(requests, rate, connections);
+        PrintStream out = System.out;
+        if (warmup > 0) {
+            out.printf(Locale.ROOT, "Warming up for %d s...%n", warmup);
+            generator.run(warmup);
+        }
+        out.printf(Locale.ROOT, "Sending %.1f requests/s of '%s' for %d s over at most %d connections...%n",
+                rate, collection.getName(), duration, connections);
+        generator.run(duration).print(out);
+
+        // The server, if started, doesn't stop on its own.
+        System.exit(0);
+    }
+
+    /**
+     * Sends requests on schedule for a while and waits for the answers.
+     *
+     * @param seconds How long to start requests for.
+     *
+     * @return The results of all requests started.
+     */
+    private Recording run(int seconds) throws InterruptedException {
+        long count = Math.max(1, Math.round(rate * seconds));
+        if (count > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Too many requests, reduce the rate or duration.");
+        }
+        Recording recording = new Recording(requests.size(), (int) count);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = new ThreadPoolExecutor(connections, connections, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "load-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            long delay;
+            while ((delay = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            int index = i % requests.size();
+            workers.execute(() -> send(index, scheduled, recording));
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.MINUTES)) {
+            workers.shutdownNow();
+        }
+        recording.finish(start, System.nanoTime());
+        return recording;
+    }
+
+    private void send(int index, long scheduled, Recording recording) {
+        long sent = System.nanoTime();
+        int status;
+        try {
+            status = send(requests.get(index));
+        } catch (IOException e) {
+            status = 0;
+        }
+        long end = System.nanoTime();
+        recording.record(index, status, end - scheduled, end - sent);
+    }
+
+    /**
+     * Sends a request and reads the whole response, so that the connection can be reused.
+     *
+     * @return The status code of the response.
+     */
+    private static int send(Request request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+        connection.setRequestMethod(request.getMethod());
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        String body = request.getBody();
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+            if (in != null) {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) >= 0) {
+                    // Discarded.
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * The results of the requests of one run. Each request is recorded in its own slot, so recording
+     * neither locks nor allocates.
+     */
+    private final class Recording {
+
+        private final int requestCount;
+        private final AtomicInteger next = new AtomicInteger();
+        private final int[] requestIndexes;
+        private final int[] statuses;
+        private final long[] latencies;
+        private final long[] serviceTimes;
+        private long elapsedNanos;
+
+        Recording(int requestCount, int capacity) {
+            this.requestCount = requestCount;
+            this.requestIndexes = new int[capacity];
+            this.statuses = new int[capacity];
+            this.latencies = new long[capacity];
+            this.serviceTimes = new long[capacity];
+        }
+
+        /**
+         * Records an answered request.
+         *
+         * @param index       The index of the request in the collection.
+         * @param status      The status code, or 0 if the request failed without one.
+         * @param latency     The nanoseconds from the time the request was scheduled to the answer.
+         * @param serviceTime The nanoseconds from the time the request was sent to the answer.
+         */
+        void record(int index, int status, long latency, long serviceTime) {
+            int slot = next.getAndIncrement();
+            requestIndexes[slot] = index;
+            statuses[slot] = status;
+            latencies[slot] = latency;
+            serviceTimes[slot] = serviceTime;
+        }
+
+        void finish(long start, long end) {
+            elapsedNanos = end - start;
+        }
+
+        void print(PrintStream out) {
+            int count = next.get();
+            int failed = 0;
+            Map<String, Integer> failures = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                if (statuses[i] / 100 != 2) {
+                    failed++;
+                    failures.merge(statuses[i] == 0 ? "I/O error" : Integer.toString(statuses[i]), 1, Integer::sum);
+                }
+            }
+
+            out.println();
+            out.printf(Locale.ROOT, "Requests    %d answered, %d failed %s%n", count, failed,
+                    failures.isEmpty() ? "" : failures);
+            out.printf(Locale.ROOT, "Throughput  %.1f requests/s (target %.1f)%n", count / (elapsedNanos / 1e9),
+                    rate);
+
+            out.println();
+            out.println("Latency in ms, from the scheduled start (corrected for coordinated omission)");
+            printHeader(out);
+            for (int request = 0; request < requestCount; request++) {
+                printRow(out, requests.get(request).getName(), select(latencies, count, request));
+            }
+            printRow(out, "All", Arrays.copyOf(latencies, count));
+
+            out.println();
+            out.println("Service time in ms, from the actual start (uncorrected)");
+            printHeader(out);
+            printRow(out, "All", Arrays.copyOf(serviceTimes, count));
+        }
+
+        private long[] select(long[] values, int count, int request) {
+            long[] selected = new long[count];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                if (requestIndexes[i] == request) {
+                    selected[size++] = values[i];
+                }
+            }
+            return Arrays.copyOf(selected, size);
+        }
+
+        private void printHeader(PrintStream out) {
+            out.printf(Locale.ROOT, "%-24s %8s", "Request", "Count");
+            for (double percentile : PERCENTILES) {
+                out.printf(Locale.ROOT, " %9s", percentile == 100 ? "max" : "p" + format(percentile));
+            }
+            out.println();
+        }
+
+        private void printRow(PrintStream out, String name, long[] values) {
+            Arrays.sort(values);
+            out.printf(Locale.ROOT, "%-24s %8d", name, values.length);
+            for (double percentile : PERCENTILES) {
+                if (values.length == 0) {
+                    out.printf(Locale.ROOT, " %9s", "-");
+                } else {
+                    int rank = (int) Math.ceil(percentile / 100 * values.length);
+                    out.printf(Locale.ROOT, " %9.3f", values[Math.max(rank - 1, 0)] / 1e6);
+                }
+            }
+            out.println();
+        }
+
+        private String format(double percentile) {
+            return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The requests of a Postman collection (format v2.1), e.g.
+ * <code>PostmanQuerries/HelloWorld.postman_collection.json</code>.
+ *
+ * <p>
+ * Requests in folders are included with the folder name as prefix, e.g. <code>Folder/Request</code>. The
+ * variables of the collection are replaced when it is read. Postman's dynamic variables
+ * <code>{{$timestamp}}</code>, <code>{{$guid}}</code> and <code>{{$randomInt}}</code> are replaced on
+ * every request, the same as in Postman. Only raw bodies are supported.
+ */
+final class PostmanCollection {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{([^{}]+)\\}\\}");
+
+    private final String name;
+    private final List<Request> requests;
+
+    private PostmanCollection(String name, List<Request> requests) {
+        this.name = name;
+        this.requests = Collections.unmodifiableList(requests);
+    }
+
+    /**
+     * Reads a collection from a file.
+     *
+     * @param file The exported collection.
+     *
+     * @return The collection.
+     *
+     * @throws IOException              If the file can't be read.
+     * @throws IllegalArgumentException If the file isn't a collection or contains a request which isn't
+     *                                  supported.
+     */
+    static PostmanCollection read(Path file) throws IOException {
+        JsonObject collection;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            collection = new JsonParser().parse(reader).getAsJsonObject();
+        }
+        if (!collection.has("item")) {
+            throw new IllegalArgumentException(String.format("%s isn't a Postman collection.", file));
+        }
+
+        Map<String, String> variables = new HashMap<>();
+        for (JsonElement variable : array(collection, "variable")) {
+            JsonObject object = variable.getAsJsonObject();
+            variables.put(string(object, "key"), string(object, "value"));
+        }
+
+        List<Request> requests = new ArrayList<>();
+        addRequests(collection.getAsJsonArray("item"), "", variables, requests);
+
+        String name = collection.has("info") ? string(collection.getAsJsonObject("info"), "name") : null;
+        return new PostmanCollection(name != null ? name : file.getFileName().toString(), requests);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<Request> getRequests() {
+        return requests;
+    }
+
+    private static void addRequests(JsonArray items, String prefix, Map<String, String> variables,
+            List<Request> requests) {
+        for (JsonElement element : items) {
+            JsonObject item = element.getAsJsonObject();
+            String name = prefix + string(item, "name");
+            if (item.has("item")) {
+                addRequests(item.getAsJsonArray("item"), name + "/", variables, requests);
+            } else if (item.has("request")) {
+                requests.add(toRequest(name, item.getAsJsonObject("request"), variables));
+            }
+        }
+    }
+
+    private static Request toRequest(String name, JsonObject request, Map<String, String> variables) {
+        JsonElement url = request.get("url");
+        String rawUrl = url == null ? null : url.isJsonObject() ? string(url.getAsJsonObject(), "raw")
+                : url.getAsString();
+        if (rawUrl == null) {
+            throw new IllegalArgumentException(String.format("Request '%s' has no URL.", name));
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (JsonElement header : array(request, "header")) {
+            JsonObject object = header.getAsJsonObject();
+            if (!object.has("disabled") || !object.get("disabled").getAsBoolean()) {
+                headers.put(string(object, "key"), replace(string(object, "value"), variables));
+            }
+        }
+
+        String body = null;
+        if (request.has("body")) {
+            JsonObject object = request.getAsJsonObject("body");
+            String mode = string(object, "mode");
+            if (!"raw".equals(mode)) {
+                throw new IllegalArgumentException(String.format("Request '%s' has a body of mode '%s', only "
+                        + "raw bodies are supported.", name, mode));
+            }
+            body = replace(string(object, "raw"), variables);
+            if (!headers.containsKey("Content-Type")) {
+                headers.put("Content-Type", "application/json");
+            }
+        }
+
+        String method = request.has("method") ? string(request, "method") : "GET";
+        return new Request(name, method, replace(rawUrl, variables), headers, body);
+    }
+
+    /**
+     * Replaces the variables of the collection. Dynamic variables and unknown ones are kept.
+     */
+    private static String replace(String template, Map<String, String> variables) {
+        if (template == null || variables.isEmpty()) {
+            return template;
+        }
+        Matcher matcher = VARIABLE.matcher(template);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1).trim());
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value != null ? value : matcher.group()));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static JsonArray array(JsonObject object, String member) {
+        JsonElement element = object.get(member);
+        return element != null && element.isJsonArray() ? element.getAsJsonArray() : new JsonArray();
+    }
+
+    private static String string(JsonObject object, String member) {
+        JsonElement element = object.get(member);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    /**
+     * A request of the collection.
+     */
+    static final class Request {
+
+        private final String name;
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers;
+        private final String body;
+        private final boolean dynamic;
+
+        private Request(String name, String method, String url, Map<String, String> headers, String body) {
+            this.name = name;
+            this.method = method;
+            this.url = url;
+            this.headers = Collections.unmodifiableMap(headers);
+            this.body = body;
+            this.dynamic = url.contains("{{$") || (body != null && body.contains("{{$"))
+                    || headers.values().stream().anyMatch(value -> value != null && value.contains("{{$"));
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        /**
+         * Gets the URL with the dynamic variables replaced.
+         */
+        String getUrl() {
+            return dynamic ? resolve(url) : url;
+        }
+
+        /**
+         * Gets the headers with the dynamic variables replaced.
+         */
+        Map<String, String> getHeaders() {
+            if (!dynamic) {
+                return headers;
+            }
+            Map<String, String> resolved = new LinkedHashMap<>();
+            headers.forEach((key, value) -> resolved.put(key, resolve(value)));
+            return resolved;
+        }
+
+        /**
+         * Gets the body with the dynamic variables replaced.
+         *
+         * @return The body, or <code>null</code> if the request has none.
+         */
+        String getBody() {
+            return dynamic ? resolve(body) : body;
+        }
+
+        /**
+         * Creates a copy of this request which is sent to another server.
+         *
+         * @param target The scheme, host and port of the server, e.g. <code>http://localhost:11111</code>.
+         *
+         * @return The copy.
+         *
+         * @throws IllegalArgumentException If the URL of this request or the target isn't valid.
+         */
+        Request withTarget(String target) {
+            try {
+                URI base = new URI(target);
+                URI uri = new URI(url);
+                String path = uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+                String authority = base.getRawAuthority();
+                return new Request(name, method, base.getScheme() + "://" + authority + path, headers, body);
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException(String.format("Can't send request '%s' to %s: %s", name,
+                        target, e.getMessage()), e);
+            }
+        }
+
+        private static String resolve(String template) {
+            if (template == null || !template.contains("{{$")) {
+                return template;
+            }
+            Matcher matcher = VARIABLE.matcher(template);
+            StringBuffer result = new StringBuffer();
+            while (matcher.find()) {
+                String value;
+                switch (matcher.group(1).trim()) {
+                case "$timestamp":
+                    value = Long.toString(System.currentTimeMillis() / 1000);
+                    break;
+                case "$guid":
+                    value = UUID.randomUUID().toString();
+                    break;
+                case "$randomInt":
+                    value = Integer.toString(ThreadLocalRandom.current().nextInt(1001));
+                    break;
+                default:
+                    value = matcher.group();
+                }
+                matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+            }
+            matcher.appendTail(result);
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aasmyasset.benchmarks.InProcessHttp.Request;
+import aasmyasset.module.AASServer;
+import aasmyasset.module.Settings;
+
+/**
+ * Measures the request path of the AAS server in-process, from the servlet down to the models and back.
+ *
+ * <p>
+ * The servlet is created by {@link AASServer#createContext(Settings)}, i.e. wired exactly as
+ * {@link aasmyasset.module.DeviceContext#forModels DeviceContext.forModels} does for the server. The
+ * servlet container and the network are left out, so that changes to the hot path show clearly. The
+ * response bodies are written, but discarded.
+ *
+ * <p>
+ * The benchmark reports the throughput and the distribution of the latency. Run it with the GC profiler
+ * to see the heap allocated per request in <code>gc.alloc.rate.norm</code>:
+ *
+ * <pre>
+ * <code>
+ * java -jar target/benchmarks.jar RequestPathBenchmark -prof gc
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * Run the benchmark from a working directory without an <code>application.properties</code> file, so
+ * that the default settings are used. The operations of <code>Basic</code> log their output
+ * asynchronously, which is included in their time unless its level is set to <code>off</code> in
+ * <code>logback.xml</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPathBenchmark {
+
+    private static final String SUBMODEL = "/aas/submodels/Basic/submodel";
+    private static final String ELEMENTS = SUBMODEL + "/submodelElements";
+
+    /**
+     * A property added to <code>Basic</code> for the benchmark, since the submodel only contains
+     * operations.
+     */
+    private static final String PROPERTY = "BenchmarkProperty";
+
+    private HttpServlet servlet;
+
+    private final Request aasRequest = new Request("GET", "/aas", null);
+    private final Request submodelRequest = new Request("GET", SUBMODEL, null);
+    private final Request propertyRequest = new Request("GET", ELEMENTS + "/" + PROPERTY + "/value", null);
+    private final Request additionRequest = new Request("POST", ELEMENTS + "/Addition/invoke",
+            invocationRequest(argument("IntegerA", "integer", "3"), argument("IntegerB", "integer", "2")));
+    private final Request subtractionRequest = new Request("POST", ELEMENTS + "/Subtraction/invoke",
+            invocationRequest(argument("FloatA", "float", "3.5"), argument("FloatB", "float", "1.25")));
+    private final Request printRequest = new Request("POST", ELEMENTS + "/Print/invoke",
+            invocationRequest(argument("name", "string", "\"World\"")));
+
+    @Setup
+    public void setUp() throws Exception {
+        Settings settings = new Settings();
+        settings.load();
+        servlet = AASServer.createContext(settings).get("/*");
+
+        String property = new GSONTools(new DefaultTypeFactory()).serialize(new Property(PROPERTY, 42));
+        expectSuccess(new Request("PUT", ELEMENTS + "/" + PROPERTY, property));
+
+        // Fail at once instead of measuring error responses.
+        for (Request request : new Request[] { aasRequest, submodelRequest, propertyRequest, additionRequest, subtractionRequest,
+                printRequest }) {
+            expectSuccess(request);
+        }
+    }
+
+    @Benchmark
+    public int getAas() throws Exception {
+        return InProcessHttp.send(servlet, aasRequest);
+    }
+
+    @Benchmark
+    public int getSubmodel() throws Exception {
+        return InProcessHttp.send(servlet, submodelRequest);
+    }
+
+    @Benchmark
+    public int getProperty() throws Exception {
+        return InProcessHttp.send(servlet, propertyRequest);
+    }
+
+    @Benchmark
+    public int invokeAddition() throws Exception {
+        return InProcessHttp.send(servlet, additionRequest);
+    }
+
+    @Benchmark
+    public int invokeSubtraction() throws Exception {
+        return InProcessHttp.send(servlet, subtractionRequest);
+    }
+
+    @Benchmark
+    public int invokePrint() throws Exception {
+        return InProcessHttp.send(servlet, printRequest);
+    }
+
+    private void expectSuccess(Request request) throws Exception {
+        int status = InProcessHttp.send(servlet, request);
+        if (status / 100 != 2) {
+            throw new IllegalStateException(String.format("%s %s failed with status %d.", request.getMethod(),
+                    request.getRequestURI(), status));
+        }
+    }
+
+    /**
+     * Creates the body of a synchronous invocation, the same as sent by the Postman collection.
+     */
+    private static String invocationRequest(String... arguments) {
+        return String.format("{\"requestId\": \"benchmark\", \"inputArguments\": [%s], \"outputArguments\": [], "
+                + "\"timeout\": 5000}", String.join(", ", arguments));
+    }
+
+    private static String argument(String idShort, String valueType, String value) {
+        return String.format("{\"modelType\": {\"name\": \"OperationVariable\"}, \"value\": {\"idShort\": \"%s\", "
+                + "\"modelType\": {\"name\": \"Property\"}, \"kind\": \"Template\", \"valueType\": \"%s\", "
+                + "\"value\": %s}}", idShort, valueType, value);
+    }
+}
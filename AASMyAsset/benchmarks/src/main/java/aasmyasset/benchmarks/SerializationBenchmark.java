@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import aasmyasset.module.StreamingJsonSerializer;
+
+/**
+ * Compares writing the JSON of a whole submodel the way {@link org.eclipse.basyx.vab.protocol.http.server.VABHTTPInterface
+ * VABHTTPInterface} does with writing it through a {@link StreamingJsonSerializer}, as
+ * {@link aasmyasset.module.StreamingHTTPInterface StreamingHTTPInterface} does.
+ *
+ * <p>
+ * The submodel is read from its provider in the setup, so only the serialization is measured. Run with the GC
+ * profiler to see the heap allocated per response in <code>gc.alloc.rate.norm</code>:
+ *
+ * <pre>
+ * <code>
+ * java -jar target/benchmarks.jar SerializationBenchmark -prof gc
+ * </code>
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SerializationBenchmark {
+
+    /**
+     * The number of properties in the submodel.
+     */
+    @Param({ "10", "1000", "100000" })
+    public int elements;
+
+    private final GSONTools serializer = new GSONTools(new DefaultTypeFactory());
+    private final StreamingJsonSerializer streamingSerializer = new StreamingJsonSerializer();
+
+    private Object submodel;
+
+    @Setup
+    public void setUp() {
+        Submodel model = new Submodel("Benchmark", new Identifier(IdentifierType.CUSTOM, "urn:benchmark"));
+        for (int i = 0; i < elements; i++) {
+            model.addSubmodelElement(new Property("property" + i, i));
+        }
+        submodel = new SubmodelProvider(model).getValue("/submodel");
+    }
+
+    @Benchmark
+    public void gsonTools(Blackhole blackhole) throws IOException {
+        new DiscardingOutputStream(blackhole).write(serializer.serialize(submodel).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        streamingSerializer.write(submodel, new DiscardingOutputStream(blackhole));
+    }
+
+    /**
+     * Stands in for the servlet output stream.
+     */
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        DiscardingOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+        }
+    }
+}
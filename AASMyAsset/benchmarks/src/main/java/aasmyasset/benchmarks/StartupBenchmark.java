@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aasmyasset.connection.ClientCertificateStore;
+import aasmyasset.module.AASServer;
+import aasmyasset.module.Settings;
+
+/**
+ * Measures the time from launching the AAS server until it answered its first request successfully.
+ *
+ * <p>
+ * Every measurement runs in a fresh JVM, so class loading and the creation of all models and
+ * connectors are included. The JVM start itself is not.
+ *
+ * <p>
+ * With <code>keystore=fresh</code>, the stored application certificate and its generated password are
+ * deleted from {@link ClientCertificateStore#DEFAULT_KEYSTORE} first, so that the key pair has to be
+ * generated. With <code>keystore=stored</code>, the certificate left behind by the previous run is
+ * reused. Run the benchmark from a working directory without an <code>application.properties</code>
+ * file, so that the default port and keystore are used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    // "fresh" runs first, so that "stored" always finds a keystore.
+    @Param({ "fresh", "stored" })
+    public String keystore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("fresh".equals(keystore)) {
+            Files.deleteIfExists(ClientCertificateStore.DEFAULT_KEYSTORE);
+            Files.deleteIfExists(ClientCertificateStore.passwordFile(ClientCertificateStore.DEFAULT_KEYSTORE));
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        AASServer.main(new String[0]);
+
+        Settings settings = AASServer.getSettings();
+        URL url = new URL(String.format("http://%s:%d/aas", settings.applicationHostname.get(),
+                settings.applicationPort.get()));
+        while (true) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                int status = connection.getResponseCode();
+                try (InputStream body = connection.getInputStream()) {
+                    while (body.read() != -1) {
+                        // Drain the response, so that it is received completely.
+                    }
+                }
+                return status;
+            } catch (IOException e) {
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.benchmarks;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedByte;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedInteger;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedLong;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedShort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aasmyasset.connection.ValueCodec;
+import aasmyasset.connection.ValueCodecs;
+
+/**
+ * Measures the cost of converting a single value read from or written to an OPC UA server, for every
+ * numeric type an {@link aasmyasset.connection.OpcUaVariable OpcUaVariable} supports.
+ *
+ * <p>
+ * The codec is looked up in the setup, like it is when a variable is created, so only the per-read
+ * and per-write conversion is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueCodecBenchmark {
+
+    @Param({ "Byte", "Short", "Integer", "Long", "Float", "Double", "UnsignedByte", "UnsignedShort",
+            "UnsignedInteger", "UnsignedLong" })
+    public String type;
+
+    private ValueCodec codec;
+    private Object opcUaValue;
+    private Object baSyxValue;
+
+    @Setup
+    public void setUp() {
+        switch (type) {
+        case "Byte":
+            opcUaValue = (byte) 42;
+            break;
+        case "Short":
+            opcUaValue = (short) 4242;
+            break;
+        case "Integer":
+            opcUaValue = 424242;
+            break;
+        case "Long":
+            opcUaValue = 42424242424L;
+            break;
+        case "Float":
+            opcUaValue = 42.42f;
+            break;
+        case "Double":
+            opcUaValue = 42.42;
+            break;
+        case "UnsignedByte":
+            opcUaValue = new UnsignedByte((short) 242);
+            break;
+        case "UnsignedShort":
+            opcUaValue = new UnsignedShort(42424);
+            break;
+        case "UnsignedInteger":
+            opcUaValue = new UnsignedInteger(4242424242L);
+            break;
+        case "UnsignedLong":
+            opcUaValue = new UnsignedLong(new BigInteger("18446744073709551000"));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+
+        codec = ValueCodecs.forType(opcUaValue.getClass());
+        baSyxValue = codec.toBaSyx(opcUaValue);
+    }
+
+    @Benchmark
+    public Object read() {
+        return codec.toBaSyx(opcUaValue);
+    }
+
+    @Benchmark
+    public Object write() {
+        return codec.toOpcUa(baSyxValue);
+    }
+}
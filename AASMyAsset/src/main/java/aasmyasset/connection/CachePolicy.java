@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Determines what an {@link OpcUaVariable} does when its cached value is older than its cache
+ * duration.
+ *
+ * <p>
+ * With the default policy {@link #REFRESH}, the value is read from the server before it is returned,
+ * so the caller waits for the round trip. With {@link #staleWhileRevalidate(Duration)}, the expired
+ * value is returned at once and a refresh is started in the background. This keeps the response time
+ * independent of the server's response time, at the cost of sometimes returning slightly older data.
+ * The age of a returned value is always bounded: a value older than the maximum staleness is never
+ * returned, a synchronous read is done instead.
+ */
+public final class CachePolicy {
+
+    /**
+     * Expired values are refreshed synchronously before they are returned.
+     */
+    public static final CachePolicy REFRESH = new CachePolicy(null, null);
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    /**
+     * Runs background refreshes of all variables which don't bring their own executor.
+     */
+    private static final ExecutorService DEFAULT_REFRESH_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "opcua-refresh-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Duration maxStaleness;
+    private final Executor refreshExecutor;
+
+    private CachePolicy(Duration maxStaleness, Executor refreshExecutor) {
+        this.maxStaleness = maxStaleness;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Creates a policy which returns expired values at once and refreshes them in the background on
+     * a shared executor.
+     *
+     * @param maxStaleness The maximum age of a value which may still be returned. Values older than
+     *                     this are refreshed synchronously. Should be larger than the variable's cache
+     *                     duration, otherwise this policy behaves like {@link #REFRESH}.
+     *
+     * @return The new policy.
+     */
+    public static CachePolicy staleWhileRevalidate(Duration maxStaleness) {
+        return staleWhileRevalidate(maxStaleness, DEFAULT_REFRESH_EXECUTOR);
+    }
+
+    /**
+     * Creates a policy which returns expired values at once and refreshes them in the background on
+     * the given executor.
+     *
+     * @param maxStaleness    The maximum age of a value which may still be returned. Values older than
+     *                        this are refreshed synchronously.
+     * @param refreshExecutor The executor to run background refreshes on.
+     *
+     * @return The new policy.
+     */
+    public static CachePolicy staleWhileRevalidate(Duration maxStaleness, Executor refreshExecutor) {
+        if (maxStaleness == null || maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("Maximum staleness must not be null or negative: " + maxStaleness);
+        }
+        if (refreshExecutor == null) {
+            throw new IllegalArgumentException("Refresh executor must not be null.");
+        }
+        return new CachePolicy(maxStaleness, refreshExecutor);
+    }
+
+    /**
+     * Checks whether expired values may be returned while they are refreshed in the background.
+     *
+     * @return <code>true</code> for policies created by {@link #staleWhileRevalidate}.
+     */
+    public boolean isStaleWhileRevalidate() {
+        return maxStaleness != null;
+    }
+
+    /**
+     * Gets the maximum age of a value which may still be returned.
+     *
+     * @return The maximum staleness, or <code>null</code> for {@link #REFRESH}.
+     */
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * Gets the executor background refreshes run on.
+     *
+     * @return The executor, or <code>null</code> for {@link #REFRESH}.
+     */
+    public Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.CertificateNotYetValidException;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.festo.aas.p4m.security.SelfSignedCertificateProvider;
+
+/**
+ * Provides the application certificate of the OPC UA clients and keeps it in a local keystore.
+ *
+ * <p>
+ * Generating a key pair takes a noticeable amount of time. This class generates the key pair and
+ * self-signed certificate only on the first start and stores them in a PKCS#12 keystore. Later
+ * starts read them from the keystore instead. A new certificate is created if the keystore can't be
+ * read, if the stored certificate is about to expire, or if it was issued for a different
+ * application URI.
+ *
+ * <p>
+ * The keystore is written with permissions for its owner only, where the file system supports
+ * this. Since OPC UA servers identify this application by its certificate, reusing it also means
+ * servers which trusted the certificate once keep trusting it after a restart.
+ *
+ * <p>
+ * By default, the keystore is kept in {@link #DEFAULT_DIRECTORY} instead of the working directory,
+ * so that the private key doesn't end up next to the sources. If no password is configured, a random
+ * one is created with {@link #readOrCreatePassword(Path)}, instead of protecting every installation
+ * with the same published password.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * Path keystore = ClientCertificateStore.DEFAULT_KEYSTORE;
+ * ClientCertificateStore store = new ClientCertificateStore(keystore,
+ *         ClientCertificateStore.readOrCreatePassword(keystore), "MyAAS", "urn:example:MyAAS");
+ * store.load();
+ * config.setKeyPairAndCertificate(store.getKeyPair(), store.getCertificate());
+ * </code>
+ * </pre>
+ */
+public final class ClientCertificateStore {
+    private static final Logger logger = LoggerFactory.getLogger(ClientCertificateStore.class);
+
+    /**
+     * The directory of the keystore if no other one is configured, <code>.aasmyasset</code> in the
+     * home directory of the user running the application.
+     */
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".aasmyasset");
+
+    /**
+     * The keystore used if no other one is configured.
+     */
+    public static final Path DEFAULT_KEYSTORE = DEFAULT_DIRECTORY.resolve("opcua-client.p12");
+
+    private static final String KEYSTORE_TYPE = "PKCS12";
+    private static final String ALIAS = "opcua-client";
+
+    /**
+     * The suffix appended to the name of the keystore for the file holding its generated password.
+     */
+    private static final String PASSWORD_SUFFIX = ".password";
+
+    /**
+     * The number of random bytes of a generated password.
+     */
+    private static final int PASSWORD_BYTES = 24;
+
+    /**
+     * How long before its expiry a stored certificate is replaced.
+     */
+    private static final Duration RENEWAL_MARGIN = Duration.ofDays(7);
+
+    /**
+     * The <code>uniformResourceIdentifier</code> type of a subject alternative name.
+     */
+    private static final int SAN_URI = 6;
+
+    private final Path path;
+    private final char[] password;
+    private final String applicationName;
+    private final String applicationUri;
+
+    private KeyPair keyPair;
+    private X509Certificate certificate;
+
+    /**
+     * Creates a new store. Nothing is read until {@link #load()} is called.
+     *
+     * @param path            The keystore file. It is created if it doesn't exist.
+     * @param password        The password protecting the keystore and the private key.
+     * @param applicationName The name of this application, used as the certificate's common name.
+     * @param applicationUri  The application URI of this application. OPC UA requires it to be a
+     *                        subject alternative name of the certificate.
+     */
+    public ClientCertificateStore(Path path, char[] password, String applicationName, String applicationUri) {
+        this.path = path;
+        this.password = password.clone();
+        this.applicationName = applicationName;
+        this.applicationUri = applicationUri;
+    }
+
+    /**
+     * Reads the key pair and certificate from the keystore, or creates and stores new ones.
+     *
+     * <p>
+     * If the keystore can't be written, the new certificate is used anyway and a warning is logged.
+     *
+     * @throws GeneralSecurityException if a new certificate is needed and can't be created.
+     */
+    public void load() throws GeneralSecurityException {
+        if (Files.isRegularFile(path)) {
+            try {
+                if (read()) {
+                    logger.debug("Using the application certificate stored in {}.", path);
+                    return;
+                }
+            } catch (IOException | GeneralSecurityException e) {
+                logger.warn("Could not read the application certificate from {}, creating a new one.", path, e);
+            }
+        }
+
+        logger.info("Creating a new application certificate for {}.", applicationUri);
+        SelfSignedCertificateProvider provider = new SelfSignedCertificateProvider(applicationName, null, null, null,
+                null, null, applicationUri);
+        provider.load();
+        keyPair = provider.getKeyPair();
+        certificate = provider.getCertificate();
+
+        try {
+            write();
+        } catch (IOException | GeneralSecurityException e) {
+            logger.warn("Could not store the application certificate in {}. A new one will be created on the "
+                    + "next start.", path, e);
+        }
+    }
+
+    /**
+     * Reads the generated password of a keystore, or generates and stores one if there is none yet.
+     *
+     * <p>
+     * The password is stored next to the keystore, in a file with the name of the keystore and the
+     * suffix <code>.password</code>. Like the keystore, it is only accessible by its owner where the
+     * file system supports this.
+     *
+     * @param keystore The keystore file, which doesn't need to exist yet.
+     *
+     * @return The password.
+     *
+     * @throws IOException if the password file can't be read or written.
+     */
+    public static char[] readOrCreatePassword(Path keystore) throws IOException {
+        Path file = passwordFile(keystore);
+        if (Files.isRegularFile(file)) {
+            String password = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+            if (!password.isEmpty()) {
+                return password.toCharArray();
+            }
+        }
+
+        byte[] random = new byte[PASSWORD_BYTES];
+        new SecureRandom().nextBytes(random);
+        String password = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        logger.info("Creating a new password for the application certificate in {}.", file);
+        writeOwnerOnly(file, out -> out.write(password.getBytes(StandardCharsets.US_ASCII)));
+        return password.toCharArray();
+    }
+
+    /**
+     * Gets the file holding the generated password of a keystore, see
+     * {@link #readOrCreatePassword(Path)}.
+     *
+     * @param keystore The keystore file.
+     *
+     * @return The password file, which may not exist.
+     */
+    public static Path passwordFile(Path keystore) {
+        return keystore.resolveSibling(keystore.getFileName() + PASSWORD_SUFFIX);
+    }
+
+    /**
+     * Gets the key pair of the application certificate.
+     *
+     * @return The key pair, or <code>null</code> if {@link #load()} wasn't called yet.
+     */
+    public KeyPair getKeyPair() {
+        return keyPair;
+    }
+
+    /**
+     * Gets the application certificate.
+     *
+     * @return The certificate, or <code>null</code> if {@link #load()} wasn't called yet.
+     */
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    /**
+     * Reads the keystore.
+     *
+     * @return <code>true</code> if it contained a usable certificate, <code>false</code> if a new one
+     *         is needed.
+     */
+    private boolean read() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance(KEYSTORE_TYPE);
+        try (InputStream in = Files.newInputStream(path)) {
+            store.load(in, password);
+        }
+
+        Key key = store.getKey(ALIAS, password);
+        Certificate stored = store.getCertificate(ALIAS);
+        if (!(key instanceof PrivateKey) || !(stored instanceof X509Certificate)) {
+            logger.info("{} contains no application certificate.", path);
+            return false;
+        }
+
+        X509Certificate x509 = (X509Certificate) stored;
+        try {
+            x509.checkValidity(new Date(System.currentTimeMillis() + RENEWAL_MARGIN.toMillis()));
+        } catch (CertificateExpiredException | CertificateNotYetValidException e) {
+            logger.info("The application certificate in {} expires on {}.", path, x509.getNotAfter());
+            return false;
+        }
+
+        if (!hasApplicationUri(x509)) {
+            logger.info("The application certificate in {} was issued for a different application URI.", path);
+            return false;
+        }
+
+        keyPair = new KeyPair(x509.getPublicKey(), (PrivateKey) key);
+        certificate = x509;
+        return true;
+    }
+
+    /**
+     * Writes the keystore.
+     */
+    private void write() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance(KEYSTORE_TYPE);
+        store.load(null, null);
+        store.setKeyEntry(ALIAS, keyPair.getPrivate(), password, new Certificate[] { certificate });
+
+        writeOwnerOnly(path, out -> {
+            try {
+                store.store(out, password);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    /**
+     * Writes a file which only its owner may access. It is written to a temporary file first, so that
+     * a crash never leaves a truncated file behind. A missing directory is created with permissions
+     * for its owner only.
+     */
+    private static void writeOwnerOnly(Path file, Content content) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (!Files.isDirectory(directory)) {
+            try {
+                Files.createDirectories(directory,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } catch (UnsupportedOperationException e) {
+                Files.createDirectories(directory);
+            }
+        }
+
+        // Temporary files are only accessible by their owner.
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                content.writeTo(out);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean hasApplicationUri(X509Certificate x509) throws CertificateParsingException {
+        Collection<List<?>> names = x509.getSubjectAlternativeNames();
+        if (names == null) {
+            return false;
+        }
+        for (List<?> name : names) {
+            if (Integer.valueOf(SAN_URI).equals(name.get(0)) && applicationUri.equals(name.get(1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -22,36 +22,223 @@
  
 package aasmyasset.connection;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.basyx.vab.protocol.http.connector.HTTPConnector;
 import org.eclipse.basyx.vab.protocol.opcua.connector.ClientConfiguration;
 import org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient;
 import org.eclipse.basyx.vab.protocol.opcua.connector.milo.MiloOpcUaClient;
 
+import aasmyasset.metrics.MetricsRegistry;
 import aasmyasset.module.AASServer;
 import aasmyasset.module.Settings;
 
 import org.eclipse.basyx.vab.protocol.api.IBaSyxConnector;
-import com.festo.aas.p4m.security.SelfSignedCertificateProvider;
 
 public class ConnectedDevices {
 	
+	/**
+	 * The number of threads the {@link RefreshScheduler} uses to start its batched reads.
+	 */
+	private static final int REFRESH_SCHEDULER_THREADS = 2;
+	
+	/**
+	 * The maximum number of sessions opened to a single OPC UA endpoint.
+	 */
+	private static final int MAX_SESSIONS_PER_ENDPOINT = 4;
+	
+	/**
+	 * The number of requests in flight on every session of an endpoint above which another session is opened.
+	 */
+	private static final int MAX_IN_FLIGHT_PER_SESSION = 32;
+	
+	/**
+	 * The time between two health probes of a connected OPC UA session.
+	 */
+	private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(5);
+	
+	/**
+	 * The maximum time between two attempts to reconnect a lost OPC UA session.
+	 */
+	private static final Duration MAX_RECONNECT_BACKOFF = Duration.ofSeconds(30);
+	
+	/**
+	 * The maximum number of connections kept open to a single HTTP host.
+	 */
+	private static final int MAX_HTTP_CONNECTIONS_PER_HOST = 8;
+	
+	/**
+	 * The maximum number of connections kept open to all HTTP hosts together.
+	 */
+	private static final int MAX_HTTP_CONNECTIONS_TOTAL = 64;
+	
+	/**
+	 * How long an idle HTTP connection is kept open for reuse.
+	 */
+	private static final Duration HTTP_KEEP_ALIVE = Duration.ofSeconds(30);
+	
+	/**
+	 * The timeout for connecting to a HTTP host and for waiting for its response.
+	 */
+	private static final Duration HTTP_TIMEOUT = Duration.ofSeconds(10);
+	
+	/**
+	 * The number of consecutive failed calls after which an endpoint is considered unavailable.
+	 */
+	private static final int ENDPOINT_FAILURE_THRESHOLD = 5;
+	
+	/**
+	 * How long calls to an unavailable endpoint are rejected before it is tried again.
+	 */
+	private static final Duration ENDPOINT_OPEN_DURATION = Duration.ofSeconds(10);
+	
+	/**
+	 * The maximum number of calls in flight to a single endpoint. Further calls are rejected.
+	 */
+	private static final int MAX_CONCURRENT_CALLS_PER_ENDPOINT = 64;
+	
+	/**
+	 * Keeps all variables registered with {@link #register(OpcUaVariable)} up to date.
+	 */
+	private final RefreshScheduler refreshScheduler = new RefreshScheduler(REFRESH_SCHEDULER_THREADS);
+	
+	/**
+	 * Shares the OPC UA sessions of each endpoint among all variables connected to it.
+	 */
+	private final OpcUaClientPool opcUaClientPool;
+	
+	/**
+	 * The non-blocking HTTP client shared by all wrappers returned by {@link #getHTTPClient(String)}.
+	 */
+	private final PooledHttpClient pooledHttpClient = new PooledHttpClient(MAX_HTTP_CONNECTIONS_PER_HOST, 
+			MAX_HTTP_CONNECTIONS_TOTAL, HTTP_KEEP_ALIVE, HTTP_TIMEOUT);
+	
+	/**
+	 * The HTTP clients handed out so far, keyed by their endpoint.
+	 */
+	private final Map<String, HTTPConnectorWrapper> httpClients = new ConcurrentHashMap<>();
+	
+	/**
+	 * The guards of all endpoints handed out so far, keyed by their endpoint.
+	 */
+	private final Map<String, EndpointGuard> guards = new ConcurrentHashMap<>();
 
 	/**
 	 * Constructor. Initializes the available servers endpoints declared as field variables respective to their Connectors.
+	 * 
+	 * <p>
+	 * Every instance owns its own connection pools and threads. The application creates a single instance in 
+	 * {@link AASServer#main(String[])} and hands it to all submodels. 
 	 *  
 	 * @throws Exception If any exception occurs during the creation of the connectors. 
 	 */
 public ConnectedDevices() throws Exception {
 		
+		ClientConfiguration opcUaClientConfig;
 		try {
 			
-			ClientConfiguration opcUaClientConfig = createOpcUaClientConfiguration();
-		} catch (GeneralSecurityException e) {
+			opcUaClientConfig = createOpcUaClientConfiguration();
+		} catch (GeneralSecurityException | IOException e) {
 			throw new Exception("Failed to create application certificate for the OPCUA Client.", e);
 		}
 		
+		opcUaClientPool = new OpcUaClientPool(endpointUrl -> createOPCUAClient(endpointUrl, opcUaClientConfig), 
+				MAX_SESSIONS_PER_ENDPOINT, MAX_IN_FLIGHT_PER_SESSION, KEEP_ALIVE_INTERVAL, MAX_RECONNECT_BACKOFF);
+	}
+	
+	/**
+	 * Gets the shared OPC UA client for the given endpoint. 
+	 * 
+	 * <p>
+	 * All variables of an endpoint should use the client returned by this method, so that they share 
+	 * its sessions. The sessions are connected, health-checked and reconnected in the background.  
+	 * 
+	 * <p>
+	 * The client is protected by the endpoint's {@link EndpointGuard}, see {@link #getGuards()}.
+	 * 
+	 * @param endpointUrl		The endpoint, e.g. <code>opc.tcp://localhost:4840</code>.
+	 * @return					The client shared by all users of the endpoint.
+	 */
+	public OPCUAConnectorWrapper getOpcUaClient(String endpointUrl) {
+		OPCUAConnectorWrapper client = opcUaClientPool.getClient(endpointUrl);
+		guards.computeIfAbsent(endpointUrl, url -> {
+			EndpointGuard guard = createGuard(url);
+			client.setGuard(guard);
+			return guard;
+		});
+		return client;
+	}
+	
+	/**
+	 * Gets the HTTP client for the given endpoint. 
+	 * 
+	 * <p>
+	 * Besides the blocking methods, the returned client offers non-blocking ones, e.g. 
+	 * {@link HTTPConnectorWrapper#readValueAsync(String)}. These share a pool of keep-alive connections 
+	 * with all other clients returned by this method. 
+	 * 
+	 * <p>
+	 * The client is protected by the endpoint's {@link EndpointGuard}, see {@link #getGuards()}.
+	 * 
+	 * @param endpointUrl		The HTTP endpoint, e.g. <code>http://127.0.0.1:5000/</code>.
+	 * @return					The client for the endpoint.
+	 */
+	public HTTPConnectorWrapper getHTTPClient(String endpointUrl) {
+		return httpClients.computeIfAbsent(endpointUrl, url -> {
+			HTTPConnectorWrapper client = new HTTPConnectorWrapper(createHTTPClient(url), url, pooledHttpClient);
+			client.setGuard(guards.computeIfAbsent(url, this::createGuard));
+			registerCacheMetrics(client, url);
+			return client;
+		});
+	}
+	
+	/**
+	 * Gets the non-blocking HTTP client shared by all wrappers returned by {@link #getHTTPClient(String)}.
+	 * 
+	 * @return		The shared client. 
+	 */
+	public PooledHttpClient getPooledHttpClient() {
+		return pooledHttpClient;
+	}
+	
+	/**
+	 * Gets the guards of all endpoints handed out so far, e.g. to check their state and rejection counts.
+	 * 
+	 * @return		The guards, keyed by their endpoint.
+	 */
+	public Map<String, EndpointGuard> getGuards() {
+		return Collections.unmodifiableMap(guards);
+	}
+	
+	/**
+	 * Hands a variable over to the central {@link RefreshScheduler}. 
+	 * 
+	 * <p>
+	 * The variable is refreshed once per cache duration together with all other registered variables 
+	 * of the same endpoint and cache duration, using a single batched read. 
+	 * 
+	 * @param variable		A variable created with {@link UpdateMode#SCHEDULED}.
+	 * @return				The given variable, so that it can be passed on directly. 
+	 */
+	public OpcUaVariable register(OpcUaVariable variable) {
+		refreshScheduler.register(variable);
+		return variable;
+	}
+	
+	/**
+	 * Gets the scheduler which keeps all registered variables up to date. 
+	 * 
+	 * @return The refresh scheduler.
+	 */
+	public RefreshScheduler getRefreshScheduler() {
+		return refreshScheduler;
 	}
 	
 	/**
@@ -80,12 +267,21 @@ public ConnectedDevices() throws Exception {
      *
      * @throws GeneralSecurityException if the creation of the application certificate for the OPC UA
      *                                  client fails.
+     * @throws IOException              if the generated password of the keystore can't be read or stored.
      */
-	private ClientConfiguration createOpcUaClientConfiguration() throws GeneralSecurityException {
+	private ClientConfiguration createOpcUaClientConfiguration() throws GeneralSecurityException, IOException {
 		
 		Settings settings = AASServer.getSettings();
 		
-		SelfSignedCertificateProvider certificateProvider = new SelfSignedCertificateProvider(settings.aasName.get(), null, null, null, null, null, settings.aasUri.get().toString());
+		String configuredKeystore = settings.OPCUA_CLIENT_KEYSTORE.get();
+		Path keystore = isBlank(configuredKeystore) ? ClientCertificateStore.DEFAULT_KEYSTORE 
+				: Paths.get(configuredKeystore);
+		String configuredPassword = settings.OPCUA_CLIENT_KEYSTORE_PASSWORD.get();
+		char[] password = isBlank(configuredPassword) ? ClientCertificateStore.readOrCreatePassword(keystore) 
+				: configuredPassword.toCharArray();
+		
+		ClientCertificateStore certificateProvider = new ClientCertificateStore(keystore, password, 
+				settings.aasName.get(), settings.aasUri.get().toString());
 		certificateProvider.load();
 	       
 	    ClientConfiguration config = new ClientConfiguration();
@@ -99,6 +295,10 @@ public ConnectedDevices() throws Exception {
 	    
 	}
 	
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+	
 	/**
 	 * Creates a new HTTPClient. 
 	 * 
@@ -109,4 +309,42 @@ public ConnectedDevices() throws Exception {
 		return new HTTPConnector(endpointUrl);
 	}
 	
+	private EndpointGuard createGuard(String endpointUrl) {
+		EndpointGuard guard = new EndpointGuard(endpointUrl, ENDPOINT_FAILURE_THRESHOLD, ENDPOINT_OPEN_DURATION, 
+				MAX_CONCURRENT_CALLS_PER_ENDPOINT);
+		
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		metrics.counter("connector_failures_total", "Calls to an endpoint which failed because of the endpoint.", 
+				guard::getFailureCount, "endpoint", endpointUrl);
+		metrics.counter("connector_rejections_total", "Calls to an endpoint which were rejected by its guard.", 
+				guard::getCircuitRejectionCount, "endpoint", endpointUrl, "reason", "circuit");
+		metrics.counter("connector_rejections_total", "Calls to an endpoint which were rejected by its guard.", 
+				guard::getBulkheadRejectionCount, "endpoint", endpointUrl, "reason", "bulkhead");
+		metrics.gauge("connector_active_calls", "Calls to an endpoint currently in flight.", 
+				guard::getActiveCalls, "endpoint", endpointUrl);
+		metrics.gauge("connector_circuit_state", "State of the circuit breaker of an endpoint: 0 closed, 1 open, 2 half open.", 
+				() -> guard.getState().ordinal(), "endpoint", endpointUrl);
+		return guard;
+	}
+	
+	/**
+	 * Exposes the counters of the read cache of a HTTP client. The cache may be set or replaced later on. 
+	 */
+	private static void registerCacheMetrics(HTTPConnectorWrapper client, String endpointUrl) {
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		String help = "Reads of a HTTP endpoint by whether they were served from the read cache.";
+		metrics.counter("http_cache_requests_total", help, () -> {
+			HttpResponseCache cache = client.getReadCache();
+			return cache == null ? 0 : cache.getHitCount();
+		}, "endpoint", endpointUrl, "result", "hit");
+		metrics.counter("http_cache_requests_total", help, () -> {
+			HttpResponseCache cache = client.getReadCache();
+			return cache == null ? 0 : cache.getMissCount();
+		}, "endpoint", endpointUrl, "result", "miss");
+		metrics.counter("http_cache_revalidations_total", "Cache misses of a HTTP endpoint answered with 304 Not Modified.", () -> {
+			HttpResponseCache cache = client.getReadCache();
+			return cache == null ? 0 : cache.getRevalidationCount();
+		}, "endpoint", endpointUrl);
+	}
+	
 }
@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.NotAnInvokableException;
+import org.eclipse.basyx.vab.exception.provider.ResourceAlreadyExistsException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.eclipse.basyx.vab.exception.provider.WrongNumberOfParametersException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Protects the AAS from a single connected device which doesn't respond.
+ *
+ * <p>
+ * A guard combines two mechanisms for one endpoint:
+ * <ul>
+ * <li>A <b>circuit breaker</b>. After a number of consecutive failed calls, the circuit opens and
+ * all calls are rejected at once for a while, instead of each waiting for the device to time out.
+ * Afterwards, a single trial call is let through. If it succeeds, the circuit closes again,
+ * otherwise it stays open for another period.
+ * <li>A <b>bulkhead</b>. At most a fixed number of calls may be in flight at the same time. Further
+ * calls are rejected at once, so that a slow device can never occupy all threads of the server.
+ * </ul>
+ *
+ * Rejected calls fail with an {@link EndpointUnavailableException}. Calls which fail because the
+ * request itself was wrong, e.g. because the requested resource doesn't exist, don't count as
+ * failures: the endpoint did answer.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * EndpointGuard guard = new EndpointGuard(opcUaClient.endpoint, 5, Duration.ofSeconds(10), 16);
+ * guard.addStateListener((endpoint, from, to) -&gt; System.out.println(endpoint + " is now " + to));
+ * opcUaClient.setGuard(guard);
+ * </code>
+ * </pre>
+ */
+public final class EndpointGuard {
+    private static final Logger logger = LoggerFactory.getLogger(EndpointGuard.class);
+
+    /**
+     * The states of the circuit breaker.
+     */
+    public enum State {
+        /**
+         * Calls are let through.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+
+        /**
+         * A single trial call is let through to find out whether the endpoint is available again.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Is notified whenever the circuit breaker changes its state.
+     */
+    public interface StateListener {
+
+        /**
+         * Called after the state changed.
+         *
+         * @param endpoint The endpoint the guard protects.
+         * @param from     The previous state.
+         * @param to       The new state.
+         */
+        void stateChanged(String endpoint, State from, State to);
+    }
+
+    private final String endpoint;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAtNanos;
+
+    private final LongAdder circuitRejections = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new guard with a closed circuit.
+     *
+     * @param endpoint           The endpoint to protect. Only used for messages.
+     * @param failureThreshold   The number of consecutive failed calls which opens the circuit.
+     * @param openDuration       How long the circuit stays open before a trial call is let through.
+     * @param maxConcurrentCalls The maximum number of calls in flight at the same time.
+     */
+    public EndpointGuard(String endpoint, int failureThreshold, Duration openDuration, int maxConcurrentCalls) {
+        if (failureThreshold < 1 || maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("Failure threshold and concurrent calls must be at least 1.");
+        }
+        this.endpoint = endpoint;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * Runs a blocking call if the guard admits it.
+     *
+     * @param call The call to the endpoint.
+     *
+     * @return The call's result.
+     *
+     * @throws EndpointUnavailableException if the call was rejected.
+     */
+    public <T> T call(Supplier<T> call) throws EndpointUnavailableException {
+        boolean trial = admit();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            release(trial, !isEndpointFailure(e));
+            throw e;
+        }
+        release(trial, true);
+        return result;
+    }
+
+    /**
+     * Starts a non-blocking call if the guard admits it. The call counts as in flight until the
+     * returned future completes.
+     *
+     * @param call Starts the call to the endpoint.
+     *
+     * @return The call's result. Fails with an {@link EndpointUnavailableException} if the call was
+     *         rejected.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        boolean trial;
+        CompletableFuture<T> result;
+        try {
+            trial = admit();
+        } catch (EndpointUnavailableException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            release(trial, !isEndpointFailure(e));
+            throw e;
+        }
+        return result.whenComplete((value, error) -> release(trial, error == null || !isEndpointFailure(error)));
+    }
+
+    /**
+     * Registers a listener for state changes of the circuit breaker.
+     *
+     * @param listener The listener to add.
+     */
+    public void addStateListener(StateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Gets the endpoint this guard protects.
+     *
+     * @return The endpoint.
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the current state of the circuit breaker.
+     *
+     * @return The state.
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Gets the number of calls currently in flight.
+     *
+     * @return The number of active calls.
+     */
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * Gets the number of calls rejected because the circuit was open.
+     *
+     * @return The number of rejections by the circuit breaker.
+     */
+    public long getCircuitRejectionCount() {
+        return circuitRejections.sum();
+    }
+
+    /**
+     * Gets the number of calls rejected because too many calls were in flight.
+     *
+     * @return The number of rejections by the bulkhead.
+     */
+    public long getBulkheadRejectionCount() {
+        return bulkheadRejections.sum();
+    }
+
+    /**
+     * Gets the number of admitted calls which failed because of the endpoint. Calls which failed
+     * because the request itself was wrong aren't counted.
+     *
+     * @return The number of failed calls.
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Decides whether a call may proceed and takes a permit for it.
+     *
+     * @return <code>true</code> if the call is the trial call of a half-open circuit.
+     */
+    private boolean admit() throws EndpointUnavailableException {
+        if (state.get() == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                circuitRejections.increment();
+                throw new EndpointUnavailableException(String.format(
+                        "%s is unavailable, calls are rejected for a while.", endpoint));
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+
+        boolean trial = false;
+        if (state.get() == State.HALF_OPEN) {
+            if (!trialInFlight.compareAndSet(false, true)) {
+                circuitRejections.increment();
+                throw new EndpointUnavailableException(String.format(
+                        "%s is unavailable, waiting for the result of a trial call.", endpoint));
+            }
+            trial = true;
+        }
+
+        if (!permits.tryAcquire()) {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+            bulkheadRejections.increment();
+            throw new EndpointUnavailableException(String.format("%s already has %d calls in flight.", endpoint,
+                    maxConcurrentCalls));
+        }
+        return trial;
+    }
+
+    private void release(boolean trial, boolean success) {
+        permits.release();
+        if (trial) {
+            trialInFlight.set(false);
+        }
+
+        if (success) {
+            consecutiveFailures.set(0);
+            State previous = state.getAndSet(State.CLOSED);
+            if (previous != State.CLOSED) {
+                notifyListeners(previous, State.CLOSED);
+            }
+            return;
+        }
+
+        failures.increment();
+        if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAtNanos = System.nanoTime();
+            State previous = state.getAndSet(State.OPEN);
+            if (previous != State.OPEN) {
+                notifyListeners(previous, State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Decides whether a failed call indicates a problem with the endpoint, as opposed to a wrong
+     * request the endpoint answered properly.
+     */
+    private static boolean isEndpointFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                : error;
+        return !(cause instanceof IllegalArgumentException
+                || cause instanceof MalformedRequestException
+                || cause instanceof ResourceNotFoundException
+                || cause instanceof ResourceAlreadyExistsException
+                || cause instanceof NotAnInvokableException
+                || cause instanceof WrongNumberOfParametersException);
+    }
+
+    private void transition(State from, State to) {
+        if (state.compareAndSet(from, to)) {
+            notifyListeners(from, to);
+        }
+    }
+
+    private void notifyListeners(State from, State to) {
+        if (to == State.OPEN) {
+            logger.warn("Circuit for {} opened, rejecting calls for {} ms.", endpoint, openNanos / 1_000_000);
+        } else {
+            logger.info("Circuit for {} changed from {} to {}.", endpoint, from, to);
+        }
+
+        for (StateListener listener : listeners) {
+            try {
+                listener.stateChanged(endpoint, from, to);
+            } catch (RuntimeException e) {
+                logger.warn("State listener of {} failed.", endpoint, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+
+/**
+ * Thrown when a call to a connected device is rejected without contacting the device, because its
+ * {@link EndpointGuard} considers it unavailable or already has too many calls in flight.
+ */
+public class EndpointUnavailableException extends ProviderException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param message A description of why the call was rejected.
+     */
+    public EndpointUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -10,6 +10,14 @@
  * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
  ******************************************************************************/
 package aasmyasset.connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
 import org.eclipse.basyx.vab.protocol.api.IBaSyxConnector;
 
 /**
@@ -65,6 +73,30 @@ public final class HTTPConnectorWrapper {
 	
 	public final IBaSyxConnector baSyxHTTPClient;
 	
+	/**
+	 * The address of the HTTP server, which the URL paths passed to the 
+	 * asynchronous methods are relative to. <code>null</code> if this wrapper 
+	 * has no {@link PooledHttpClient}. 
+	 */
+	private final String address;
+	
+	/**
+	 * The non-blocking client used by the asynchronous methods. 
+	 */
+	private final PooledHttpClient asyncClient;
+	
+	/**
+	 * The cache for {@link #readValue(String)}. <code>null</code> if reads are 
+	 * not cached. 
+	 */
+	private volatile HttpResponseCache readCache;
+	
+	/**
+	 * Rejects requests while the server is unavailable or overloaded. 
+	 * <code>null</code> if requests are never rejected. 
+	 */
+	private volatile EndpointGuard guard;
+	
 	/**
 	 * Constructor method for the class HTTPConnectorWrapper. It requires as 
 	 * parameters within the parenthesis an instance of the IBaSyxConnector 
@@ -75,10 +107,77 @@ public final class HTTPConnectorWrapper {
 
 	public HTTPConnectorWrapper(IBaSyxConnector baSyxHTTPClient) {
 		
+		this(baSyxHTTPClient, null, null);
+		
+	}
+	
+	/**
+	 * Constructor method for a HTTPConnectorWrapper which additionally offers 
+	 * non-blocking methods, e.g. {@link #readValueAsync(String)}. 
+	 * 
+	 * @param baSyxHTTPClient	The BaSyx HTTP Client used by the blocking methods.
+	 * @param address			The address of the HTTP server, e.g. 
+	 * 							http://127.0.0.1:5000/
+	 * @param asyncClient		The client used by the non-blocking methods. 
+	 * 							Usually shared by all wrappers, see 
+	 * 							{@link ConnectedDevices#getHTTPClient(String)}.
+	 */
+	public HTTPConnectorWrapper(IBaSyxConnector baSyxHTTPClient, String address, PooledHttpClient asyncClient) {
+		
 		this.baSyxHTTPClient = baSyxHTTPClient;
+		this.address = address == null || !address.endsWith("/") ? address 
+				: address.substring(0, address.length() - 1);
+		this.asyncClient = asyncClient;
 		
 	}
 	
+	/**
+	 * Enables or disables caching of the resources read by this wrapper. 
+	 * 
+	 * Writes made using this wrapper remove the written path from the cache. 
+	 * Changes made by others become visible when the cached resource expires. 
+	 * 
+	 * @param readCache		The cache to use, or <code>null</code> to read every 
+	 * 						resource from the server again. 
+	 */
+	public void setReadCache(HttpResponseCache readCache) {
+		this.readCache = readCache;
+	}
+	
+	/**
+	 * Gets the cache used for reading resources, e.g. to check its counters. 
+	 * 
+	 * @return	The read cache, or <code>null</code> if reads are not cached. 
+	 */
+	public HttpResponseCache getReadCache() {
+		return readCache;
+	}
+	
+	/**
+	 * Protects the AAS from the HTTP server becoming unavailable. 
+	 * 
+	 * All further requests made using this wrapper go through the given guard. 
+	 * While it rejects requests, they fail with an 
+	 * {@link EndpointUnavailableException} without contacting the server. Reads 
+	 * of a cached resource return the last cached response instead, even if 
+	 * it has expired. 
+	 * 
+	 * @param guard		The guard to use, or <code>null</code> to never reject 
+	 * 					requests. 
+	 */
+	public void setGuard(EndpointGuard guard) {
+		this.guard = guard;
+	}
+	
+	/**
+	 * Gets the guard set by {@link #setGuard(EndpointGuard)}. 
+	 * 
+	 * @return	The guard, or <code>null</code> if there is none. 
+	 */
+	public EndpointGuard getGuard() {
+		return guard;
+	}
+	
 	/**
 	 *	Performs a HTTP GET.
 	 *
@@ -97,7 +196,58 @@ public final class HTTPConnectorWrapper {
 	 * 					the mentioned urlPath. 
 	 */
 	public String readValue(String urlPath) {
-		return baSyxHTTPClient.getValue(urlPath);
+		HttpResponseCache cache = readCache;
+		if (cache == null) {
+			return guarded(() -> baSyxHTTPClient.getValue(urlPath));
+		}
+		
+		HttpResponseCache.Entry entry = cache.lookup(urlPath);
+		if (cache.isFresh(entry)) {
+			return entry.body;
+		}
+		
+		// Read through the BaSyx HTTP Client the same as without a cache, so that 
+		// cached and uncached reads return and fail alike. Only 
+		// readValueAsync(String) revalidates with an ETag. 
+		long generation = cache.generation();
+		try {
+			String body = guarded(() -> baSyxHTTPClient.getValue(urlPath));
+			cache.store(urlPath, generation, body, null);
+			return body;
+		} catch (EndpointUnavailableException e) {
+			if (entry != null) {
+				return entry.body;
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Performs a HTTP GET without blocking. 
+	 * 
+	 * Works like {@link #readValue(String)}, but returns at once. Many requests 
+	 * can be in flight at the same time without occupying a thread each. 
+	 * 
+	 * @param urlPath	The URL Path (Request-URI) where the resource being 
+	 * 					requested is located.
+	 * @return			A future which completes with the String representation 
+	 * 					of the resource. 
+	 */
+	public CompletableFuture<String> readValueAsync(String urlPath) {
+		if (asyncClient == null) {
+			return notSupported();
+		}
+		
+		HttpResponseCache cache = readCache;
+		if (cache == null) {
+			return guardedAsync(() -> asyncClient.get(resolve(urlPath)));
+		}
+		
+		HttpResponseCache.Entry entry = cache.lookup(urlPath);
+		if (cache.isFresh(entry)) {
+			return CompletableFuture.completedFuture(entry.body);
+		}
+		return orStale(guardedAsync(() -> fetch(cache, urlPath, entry)), entry);
 	}
 	
 	/**
@@ -138,16 +288,55 @@ public final class HTTPConnectorWrapper {
 	 */
 	public String writeValue(String urlPath, Object value, String requestType) {
 		
-		if (requestType=="PUT") {
-			return baSyxHTTPClient.setValue(urlPath, (String) value);
+		try {
+			if ("PUT".equals(requestType)) {
+				return guarded(() -> baSyxHTTPClient.setValue(urlPath, (String) value));
+			}
+			
+			else if ("POST".equals(requestType)) {
+				return guarded(() -> baSyxHTTPClient.createValue(urlPath, (String) value));
+			}
+			
+			else {
+				return "Invalid Request";
+			}
+		} finally {
+			invalidate(urlPath);
+		}
+	}
+	
+	/**
+	 * Performs a HTTP PUT (or) a HTTP POST without blocking. 
+	 * 
+	 * Works like {@link #writeValue(String, Object, String)}, but returns at once. 
+	 * 
+	 * @param urlPath		The URL Path (Request-URI) where the resource being 
+	 * 						requested is located.
+	 * @param value			The "entity" that is to be used for 'PUT' and 'POST' 
+	 * 						requests. 
+	 * @param requestType	Type of the request to be made using the function. 
+	 * 						Should be mentioned either "PUT" (or) "POST".
+	 * @return				A future which completes with the feedback from the 
+	 * 						request, or with "Invalid Request" for an unrecognized 
+	 * 						requestType.
+	 */
+	public CompletableFuture<String> writeValueAsync(String urlPath, Object value, String requestType) {
+		if (asyncClient == null) {
+			return notSupported();
 		}
 		
-		else if (requestType == "POST") {
-			return baSyxHTTPClient.createValue(urlPath, (String) value);
+		if ("PUT".equals(requestType)) {
+			return guardedAsync(() -> asyncClient.put(resolve(urlPath), (String) value))
+					.whenComplete((result, error) -> invalidate(urlPath));
+		}
+		
+		else if ("POST".equals(requestType)) {
+			return guardedAsync(() -> asyncClient.post(resolve(urlPath), (String) value))
+					.whenComplete((result, error) -> invalidate(urlPath));
 		}
 		
 		else {
-			return "Invalid Request";
+			return CompletableFuture.completedFuture("Invalid Request");
 		}
 	}
 	
@@ -172,9 +361,105 @@ public final class HTTPConnectorWrapper {
 	 * @return				Returns the feedback from the HTTP POST request. 
 	 */
 	public String invokeMethod(String urlPath, Object value) {
-		return baSyxHTTPClient.invokeOperation(urlPath, (String) value);
+		return guarded(() -> baSyxHTTPClient.invokeOperation(urlPath, (String) value));
 		
 	}
+	
+	/**
+	 * Performs a HTTP POST Operation without blocking. 
+	 * 
+	 * Works like {@link #invokeMethod(String, Object)}, but returns at once. 
+	 * 
+	 * @param urlPath		The URL Path (Request-URI) where the resource being 
+	 * 						requested is located.
+	 * @param value			The "entity" that is to be used for the 'POST' request.
+	 * @return				A future which completes with the feedback from the 
+	 * 						HTTP POST request. 
+	 */
+	public CompletableFuture<String> invokeMethodAsync(String urlPath, Object value) {
+		if (asyncClient == null) {
+			return notSupported();
+		}
+		return guardedAsync(() -> asyncClient.post(resolve(urlPath), (String) value));
+	}
+	
+	/**
+	 * Reads a resource and stores it in the cache. If an expired response with 
+	 * an ETag is cached, the server is asked whether it changed, so that an 
+	 * unchanged resource is not transferred again. 
+	 */
+	private CompletableFuture<String> fetch(HttpResponseCache cache, String urlPath, HttpResponseCache.Entry stale) {
+		
+		long generation = cache.generation();
+		HttpGet request = new HttpGet(resolve(urlPath));
+		if (stale != null && stale.etag != null) {
+			request.setHeader(HttpHeaders.IF_NONE_MATCH, stale.etag);
+		}
+		
+		return asyncClient.execute(request, (response, body) -> {
+			int statusCode = response.getStatusLine().getStatusCode();
+			if (statusCode == HttpStatus.SC_NOT_MODIFIED && stale != null) {
+				return cache.revalidated(urlPath, generation, stale).body;
+			}
+			if (statusCode >= 300) {
+				throw PooledHttpClient.toException(request, statusCode, body);
+			}
+			
+			Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+			return cache.store(urlPath, generation, body, etag == null ? null : etag.getValue()).body;
+		});
+	}
+	
+	private String guarded(Supplier<String> request) {
+		EndpointGuard guard = this.guard;
+		return guard == null ? request.get() : guard.call(request);
+	}
+	
+	private CompletableFuture<String> guardedAsync(Supplier<CompletableFuture<String>> request) {
+		EndpointGuard guard = this.guard;
+		return guard == null ? request.get() : guard.callAsync(request);
+	}
+	
+	/**
+	 * Answers a read rejected by the guard with the last cached response, if 
+	 * there is one. 
+	 */
+	private static CompletableFuture<String> orStale(CompletableFuture<String> request, HttpResponseCache.Entry stale) {
+		if (stale == null) {
+			return request;
+		}
+		
+		CompletableFuture<String> result = new CompletableFuture<>();
+		request.whenComplete((body, error) -> {
+			Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+			if (cause instanceof EndpointUnavailableException) {
+				result.complete(stale.body);
+			} else if (cause != null) {
+				result.completeExceptionally(cause);
+			} else {
+				result.complete(body);
+			}
+		});
+		return result;
+	}
+	
+	private void invalidate(String urlPath) {
+		HttpResponseCache cache = readCache;
+		if (cache != null) {
+			cache.invalidate(urlPath);
+		}
+	}
+	
+	private String resolve(String urlPath) {
+		return urlPath.startsWith("/") ? address + urlPath : address + "/" + urlPath;
+	}
+	
+	private static CompletableFuture<String> notSupported() {
+		CompletableFuture<String> result = new CompletableFuture<>();
+		result.completeExceptionally(new IllegalStateException(
+				"Asynchronous requests need a wrapper created with a PooledHttpClient."));
+		return result;
+	}
 
 }
 
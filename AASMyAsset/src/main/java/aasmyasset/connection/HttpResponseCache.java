@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache for the responses of {@link HTTPConnectorWrapper#readValue(String)}
+ * and {@link HTTPConnectorWrapper#readValueAsync(String)}, keyed by the URL
+ * path.
+ *
+ * <p>
+ * A response is served from the cache for the configured time to live. After
+ * that, it is read again. {@link HTTPConnectorWrapper#readValueAsync(String)}
+ * revalidates it instead: if the server sent an ETag with the response, the
+ * server is asked with <code>If-None-Match</code> whether the resource
+ * changed, and a <code>304 Not Modified</code> answer renews the cached
+ * response without transferring it again.
+ * {@link HTTPConnectorWrapper#readValue(String)} always reads through the
+ * BaSyx HTTP Client, which doesn't expose the ETag.
+ *
+ * <p>
+ * The cache holds a bounded number of paths. When it is full, the least
+ * recently used path is evicted.
+ *
+ * <p>
+ * Every invalidation starts a new generation. A response is only stored if
+ * no invalidation happened since its request was sent, so that a read which
+ * overlaps a write can't put the value from before the write back into the
+ * cache. Such a response is still returned to its caller.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * HTTPConnectorWrapper httpClient = connectedDevices.getHTTPClient("http://127.0.0.1:5000/");
+ * httpClient.setReadCache(new HttpResponseCache(Duration.ofSeconds(2), 1000));
+ * </code>
+ * </pre>
+ */
+public final class HttpResponseCache {
+
+	private final long ttlNanos;
+	private final int maxEntries;
+
+	/**
+	 * Guarded by itself. Iterates in access order, so the eldest entry is the
+	 * least recently used one.
+	 */
+	private final LinkedHashMap<String, Entry> entries;
+
+	/**
+	 * Guarded by {@link #entries}. Incremented by every invalidation.
+	 */
+	private long generation;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a new, empty cache.
+	 *
+	 * @param ttl			How long a response is served without asking the
+	 * 						server.
+	 * @param maxEntries	The maximum number of paths kept in the cache.
+	 */
+	public HttpResponseCache(Duration ttl, int maxEntries) {
+
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("The cache must hold at least one entry.");
+		}
+
+		this.ttlNanos = ttl.toNanos();
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, HttpResponseCache.Entry> eldest) {
+				if (size() > HttpResponseCache.this.maxEntries) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Removes the cached response of a path, e.g. because it was written.
+	 *
+	 * @param urlPath	The path whose response is no longer valid.
+	 */
+	public void invalidate(String urlPath) {
+		synchronized (entries) {
+			generation++;
+			entries.remove(urlPath);
+		}
+	}
+
+	/**
+	 * Removes all cached responses. The counters are kept.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			generation++;
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of paths currently cached.
+	 *
+	 * @return	The number of cached responses.
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Gets the number of reads which were served from the cache without asking
+	 * the server.
+	 *
+	 * @return	The number of hits.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of reads for which the server had to be asked, either
+	 * because the path wasn't cached or because its response had expired.
+	 *
+	 * @return	The number of misses.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of misses the server answered with
+	 * <code>304 Not Modified</code>, so that the cached response could be
+	 * reused.
+	 *
+	 * @return	The number of successful revalidations.
+	 */
+	public long getRevalidationCount() {
+		return revalidations.sum();
+	}
+
+	/**
+	 * Gets the number of responses removed because the cache was full.
+	 *
+	 * @return	The number of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Looks up the response for a path and counts the read as hit or miss.
+	 *
+	 * @return	The cached entry, which may have expired, or <code>null</code>.
+	 */
+	Entry lookup(String urlPath) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(urlPath);
+		}
+		if (isFresh(entry)) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return entry;
+	}
+
+	boolean isFresh(Entry entry) {
+		return entry != null && System.nanoTime() - entry.storedNanos < ttlNanos;
+	}
+
+	/**
+	 * Gets the current generation. Call this before sending the request whose
+	 * response is passed to {@link #store(String, long, String, String)}.
+	 */
+	long generation() {
+		synchronized (entries) {
+			return generation;
+		}
+	}
+
+	/**
+	 * Stores a response received from the server, unless the cache was
+	 * invalidated since the given generation.
+	 *
+	 * @return	The new entry, whether or not it was stored.
+	 */
+	Entry store(String urlPath, long generation, String body, String etag) {
+		Entry entry = new Entry(body, etag, System.nanoTime());
+		synchronized (entries) {
+			if (this.generation == generation) {
+				entries.put(urlPath, entry);
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Renews an expired entry after the server confirmed it is unchanged.
+	 */
+	Entry revalidated(String urlPath, long generation, Entry stale) {
+		revalidations.increment();
+		return store(urlPath, generation, stale.body, stale.etag);
+	}
+
+	/**
+	 * An immutable cached response.
+	 */
+	static final class Entry {
+		final String body;
+
+		/**
+		 * The ETag sent by the server, or <code>null</code> if it sent none.
+		 */
+		final String etag;
+		final long storedNanos;
+
+		Entry(String body, String etag, long storedNanos) {
+			this.body = body;
+			this.etag = etag;
+			this.storedNanos = storedNanos;
+		}
+	}
+}
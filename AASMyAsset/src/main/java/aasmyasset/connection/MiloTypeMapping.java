@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Instant;
+import java.util.GregorianCalendar;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedByte;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedInteger;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedLong;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedShort;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+
+/**
+ * Maps values between Eclipse Milo's types and the types exposed by BaSyx' {@link
+ * org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient IOpcUaClient}.
+ *
+ * <p>
+ * BaSyx performs the same mapping internally, but only for the single-node calls it offers. This
+ * class is used wherever this package talks to Milo directly (subscriptions, batched service calls),
+ * so that values look exactly like the ones returned by {@link OPCUAConnectorWrapper#readValue}.
+ */
+final class MiloTypeMapping {
+
+    private static final DatatypeFactory XML_DATATYPE_FACTORY = createDatatypeFactory();
+
+    private MiloTypeMapping() {
+    }
+
+    /**
+     * Extracts the value of a data value received from Milo and maps it to its BaSyx type.
+     *
+     * @param dataValue The data value received from the server.
+     *
+     * @return The mapped value.
+     *
+     * @throws OpcUaException if the data value carries a bad status code.
+     */
+    static Object toBaSyx(DataValue dataValue) throws OpcUaException {
+        if (dataValue.getStatusCode() != null && dataValue.getStatusCode().isBad()) {
+            throw new OpcUaException("Server returned bad status: " + dataValue.getStatusCode());
+        }
+
+        Variant variant = dataValue.getValue();
+        return variant == null ? null : toBaSyx(variant.getValue());
+    }
+
+    /**
+     * Maps a single Milo value to its BaSyx type. Values of other types are returned unchanged.
+     */
+    static Object toBaSyx(Object value) {
+        if (value instanceof DateTime) {
+            GregorianCalendar calendar = new GregorianCalendar();
+            calendar.setTimeInMillis(((DateTime) value).getJavaTime());
+            return XML_DATATYPE_FACTORY.newXMLGregorianCalendar(calendar);
+        } else if (value instanceof UByte) {
+            return new UnsignedByte((UByte) value);
+        } else if (value instanceof UShort) {
+            return new UnsignedShort((UShort) value);
+        } else if (value instanceof UInteger) {
+            return new UnsignedInteger((UInteger) value);
+        } else if (value instanceof ULong) {
+            return new UnsignedLong((ULong) value);
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Wraps a BaSyx value into a data value which can be written using Milo.
+     */
+    static DataValue toMilo(Object value) throws OpcUaException {
+        return new DataValue(new Variant(toMiloValue(value)), null, null);
+    }
+
+    private static Object toMiloValue(Object value) throws OpcUaException {
+        if (value instanceof XMLGregorianCalendar) {
+            XMLGregorianCalendar calendar = (XMLGregorianCalendar) value;
+            if (calendar.getXMLSchemaType() != DatatypeConstants.DATETIME) {
+                throw new OpcUaException("Only xs:dateTime values can be written as DateTime: " + calendar);
+            }
+            return new DateTime(Instant.ofEpochMilli(calendar.toGregorianCalendar().getTimeInMillis()));
+        } else if (value instanceof UnsignedByte) {
+            return ((UnsignedByte) value).getInternalValue();
+        } else if (value instanceof UnsignedShort) {
+            return ((UnsignedShort) value).getInternalValue();
+        } else if (value instanceof UnsignedInteger) {
+            return ((UnsignedInteger) value).getInternalValue();
+        } else if (value instanceof UnsignedLong) {
+            return ((UnsignedLong) value).getInternalValue();
+        } else {
+            return value;
+        }
+    }
+
+    private static DatatypeFactory createDatatypeFactory() {
+        try {
+            return DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e) {
+            throw new IllegalStateException("No XML datatype factory available.", e);
+        }
+    }
+}
@@ -11,10 +11,34 @@
  ******************************************************************************/
 
 package aasmyasset.connection;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
 import org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient;
+import org.eclipse.basyx.vab.protocol.opcua.connector.milo.MiloOpcUaClient;
 import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
 import org.eclipse.basyx.vab.protocol.opcua.types.NodeId;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringParameters;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 
 import com.festo.aas.p4m.connection.OpcUaClient;
 
@@ -72,10 +96,21 @@ import com.festo.aas.p4m.connection.OpcUaClient;
 
 public final class OPCUAConnectorWrapper {
 
+    /**
+     * The maximum number of nodes sent in a single Read or Write service call. Larger batches are
+     * split, because servers limit the number of operations per request.
+     */
+    private static final int MAX_NODES_PER_REQUEST = 500;
+
     /**
      * The BaSyx OPC UA client object. Use this if you need more advanced OPA UA features than this
      * class provides.
+     *
+     * @deprecated For clients taken from an {@link OpcUaClientPool}, this is the client the
+     *             endpoint's first session had when this wrapper was created, which is replaced if it
+     *             fails to connect. Use {@link #getBaSyxClient()} instead.
      */
+    @Deprecated
     public final IOpcUaClient baSyxClient;
 
     /**
@@ -83,12 +118,84 @@ public final class OPCUAConnectorWrapper {
      */
     public final String endpoint;
 
+    /**
+     * Subscriptions created on the server, keyed by their publishing interval in milliseconds.
+     * Monitored items with the same interval share one subscription.
+     */
+    private final Map<Long, CompletableFuture<UaSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * All monitored items created by {@link #subscribe}, keyed by the node they monitor.
+     */
+    private final Map<NodeId, List<UaMonitoredItem>> monitoredItems = new ConcurrentHashMap<>();
+
+    /**
+     * Gathers concurrent single-node requests into batches. <code>null</code> if coalescing is
+     * disabled.
+     */
+    private final RequestCoalescer coalescer;
+
+    /**
+     * The pooled sessions requests are spread across. <code>null</code> if this wrapper uses
+     * {@link #baSyxClient} only.
+     */
+    private final OpcUaSessionGroup sessions;
+
+    /**
+     * Rejects calls while the endpoint is unavailable or overloaded. <code>null</code> if calls are
+     * never rejected.
+     */
+    private volatile EndpointGuard guard;
+
     /**
      * Creates a new OPC UA client for the given endpoint.
      */
     public OPCUAConnectorWrapper(IOpcUaClient baSyxClient) {
+        this(baSyxClient, Duration.ZERO);
+    }
+
+    /**
+     * Creates a new OPC UA client for the given endpoint which coalesces concurrent requests.
+     *
+     * <p>
+     * Calls to {@link #readValue} and {@link #writeValue} which arrive within the given window are
+     * sent to the server as one service call. This adds up to one window of latency to each call but
+     * replaces many sequential round trips by a single one when many values are requested at the same
+     * time, e.g. while a submodel with many connected properties is serialized.
+     *
+     * @param baSyxClient       The BaSyx client to wrap.
+     * @param coalescingWindow  How long to wait for further requests before sending a batch.
+     *                          {@link Duration#ZERO} disables coalescing.
+     */
+    public OPCUAConnectorWrapper(IOpcUaClient baSyxClient, Duration coalescingWindow) {
         this.baSyxClient = baSyxClient;
         endpoint = baSyxClient.getEndpointUrl();
+        coalescer = coalescingWindow.isZero() ? null : new RequestCoalescer(this, coalescingWindow);
+        sessions = null;
+    }
+
+    /**
+     * Creates a client which spreads its requests across the sessions of an {@link OpcUaClientPool}.
+     */
+    OPCUAConnectorWrapper(OpcUaSessionGroup sessions) {
+        this.baSyxClient = sessions.primary();
+        endpoint = sessions.endpoint;
+        coalescer = null;
+        this.sessions = sessions;
+    }
+
+    /**
+     * Gets the BaSyx OPC UA client object. Use this if you need more advanced OPA UA features than this
+     * class provides.
+     *
+     * <p>
+     * For clients taken from an {@link OpcUaClientPool}, this is the current client of the endpoint's
+     * first session. Don't keep it, since it is replaced if it fails to connect.
+     *
+     * @return The BaSyx client.
+     */
+    public IOpcUaClient getBaSyxClient() {
+        return sessions != null ? sessions.primary() : baSyxClient;
     }
 
     /**
@@ -120,9 +227,93 @@ public final class OPCUAConnectorWrapper {
      * @throws OpcUaException if there is any error during the OPC UA communication. If you don't catch
      *                        this exception, it will simply be returned to the client which called this
      *                        AAS.
+     * @throws EndpointUnavailableException if the {@link #setGuard guard} rejected the call.
      */
     public Object readValue(NodeId nodeId) {
-        return baSyxClient.readValue(nodeId);
+        if (coalescer != null) {
+            return await(coalescer.read(nodeId));
+        }
+        if (sessions != null || guard != null) {
+            return await(send(client -> client.readValueAsync(nodeId)));
+        }
+        return getBaSyxClient().readValue(nodeId);
+    }
+
+    /**
+     * Reads the values of several nodes from the OPC UA server with a single request.
+     *
+     * <p>
+     * This works like {@link #readValue(NodeId)}, but all values are fetched in one round trip. Use
+     * this when you need many values at once.
+     *
+     * <h2>Example</h2>
+     *
+     * <pre>
+     * <code>
+     * NodeId temperatureNodeId = new NodeId(1, "Temperature");
+     * NodeId pressureNodeId = new NodeId(1, "Pressure");
+     * List&lt;Object&gt; values = opcUaClient.readValues(Arrays.asList(temperatureNodeId, pressureNodeId));
+     * Double temperature = (Double) values.get(0);
+     * Double pressure = (Double) values.get(1);
+     * </code>
+     * </pre>
+     *
+     * @param nodeIds The ids of the variables to read.
+     *
+     * @return The values which were read, in the same order as the given node ids.
+     *
+     * @throws OpcUaException if there is any error during the OPC UA communication or if any of the
+     *                        nodes could not be read.
+     */
+    public List<Object> readValues(List<NodeId> nodeIds) {
+        return await(readValuesAsync(nodeIds));
+    }
+
+    /**
+     * Reads the values of several nodes from the OPC UA server without blocking.
+     *
+     * @param nodeIds The ids of the variables to read.
+     *
+     * @return A future which completes with the values in the same order as the given node ids, or
+     *         exceptionally with an {@link OpcUaException}.
+     *
+     * @see #readValues(List)
+     */
+    public CompletableFuture<List<Object>> readValuesAsync(List<NodeId> nodeIds) {
+        return readValuesOrFailures(nodeIds).thenApply(results -> {
+            for (Object result : results) {
+                if (result instanceof OpcUaException) {
+                    throw (OpcUaException) result;
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Reads the values of several nodes, reporting failures per node.
+     *
+     * @return A future which completes with one entry per node id. For nodes which could not be read,
+     *         the entry is the {@link OpcUaException} describing the failure. The future itself only
+     *         fails if the whole request failed.
+     */
+    CompletableFuture<List<Object>> readValuesOrFailures(List<NodeId> nodeIds) {
+        if (!(getBaSyxClient() instanceof MiloOpcUaClient)) {
+            return readEach(nodeIds);
+        }
+
+        List<CompletableFuture<List<Object>>> chunks = new ArrayList<>();
+        for (List<NodeId> chunk : partition(nodeIds)) {
+            chunks.add(readChunk(chunk));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<Object> values = new ArrayList<>(nodeIds.size());
+            for (CompletableFuture<List<Object>> chunk : chunks) {
+                values.addAll(chunk.join());
+            }
+            return values;
+        });
     }
 
     /**
@@ -151,9 +342,109 @@ public final class OPCUAConnectorWrapper {
      * @throws OpcUaException if there is any error during the OPC UA communication. If you don't catch
      *                        this exception, it will simply be returned to the client which called this
      *                        AAS.
+     * @throws EndpointUnavailableException if the {@link #setGuard guard} rejected the call.
      */
     public void writeValue(NodeId nodeId, Object value) {
-        baSyxClient.writeValue(nodeId, value);
+        if (coalescer != null) {
+            await(coalescer.write(nodeId, value));
+            return;
+        }
+        if (sessions != null || guard != null) {
+            await(send(client -> client.writeValueAsync(nodeId, value)));
+            return;
+        }
+        getBaSyxClient().writeValue(nodeId, value);
+    }
+
+    /**
+     * Writes the values of several nodes on the OPC UA server with a single request.
+     *
+     * <p>
+     * This works like {@link #writeValue(NodeId, Object)}, but all values are written in one round
+     * trip.
+     *
+     * <h2>Example</h2>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;NodeId, Object&gt; values = new LinkedHashMap&lt;&gt;();
+     * values.put(new NodeId(1, "SetpointA"), 5);
+     * values.put(new NodeId(1, "SetpointB"), 7.5);
+     * opcUaClient.writeValues(values);
+     * </code>
+     * </pre>
+     *
+     * @param values The new values to write, keyed by the id of the variable to write them to.
+     *
+     * @throws OpcUaException if there is any error during the OPC UA communication or if any of the
+     *                        nodes could not be written. Nodes which don't appear in the exception
+     *                        message have been written successfully.
+     */
+    public void writeValues(Map<NodeId, Object> values) {
+        await(writeValuesAsync(values));
+    }
+
+    /**
+     * Writes the values of several nodes on the OPC UA server without blocking.
+     *
+     * @param values The new values to write, keyed by the id of the variable to write them to.
+     *
+     * @return A future which completes once all values have been written, or exceptionally with an
+     *         {@link OpcUaException}.
+     *
+     * @see #writeValues(Map)
+     */
+    public CompletableFuture<Void> writeValuesAsync(Map<NodeId, Object> values) {
+        List<NodeId> nodeIds = new ArrayList<>(values.keySet());
+        return writeValuesOrFailures(values).thenAccept(results -> {
+            List<NodeId> failed = new ArrayList<>();
+            OpcUaException failure = null;
+            for (int i = 0; i < results.size(); i++) {
+                OpcUaException result = results.get(i);
+                if (result != null) {
+                    failed.add(nodeIds.get(i));
+                    if (failure == null) {
+                        failure = result;
+                    } else {
+                        failure.addSuppressed(result);
+                    }
+                }
+            }
+            if (failed.size() == 1) {
+                throw failure;
+            }
+            if (!failed.isEmpty()) {
+                throw new OpcUaException(String.format("Failed to write %s on %s.", failed, endpoint), failure);
+            }
+        });
+    }
+
+    /**
+     * Writes the values of several nodes, reporting failures per node.
+     *
+     * @return A future which completes with one entry per node, in the iteration order of the given
+     *         map. The entry is <code>null</code> if the node was written, or the
+     *         {@link OpcUaException} describing the failure. The future itself only fails if the whole
+     *         request failed.
+     */
+    CompletableFuture<List<OpcUaException>> writeValuesOrFailures(Map<NodeId, Object> values) {
+        if (!(getBaSyxClient() instanceof MiloOpcUaClient)) {
+            return writeEach(values);
+        }
+
+        List<NodeId> nodeIds = new ArrayList<>(values.keySet());
+        List<CompletableFuture<List<OpcUaException>>> chunks = new ArrayList<>();
+        for (List<NodeId> chunk : partition(nodeIds)) {
+            chunks.add(writeChunk(chunk, values));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<OpcUaException> results = new ArrayList<>(nodeIds.size());
+            for (CompletableFuture<List<OpcUaException>> chunk : chunks) {
+                results.addAll(chunk.join());
+            }
+            return results;
+        });
     }
 
     /**
@@ -197,9 +488,286 @@ public final class OPCUAConnectorWrapper {
      * @throws OpcUaException if there is any error during the OPC UA communication. If you don't catch
      *                        this exception, it will simply be returned to the client which called this
      *                        AAS.
+     * @throws EndpointUnavailableException if the {@link #setGuard guard} rejected the call.
      */
     public List<Object> invokeMethod(NodeId ownerId, NodeId methodId, Object... parameters) {
-        return baSyxClient.invokeMethod(ownerId, methodId, parameters);
+        if (sessions != null || guard != null) {
+            return await(send(client -> client.invokeMethodAsync(ownerId, methodId, parameters)));
+        }
+        return getBaSyxClient().invokeMethod(ownerId, methodId, parameters);
+    }
+
+    /**
+     * Protects the AAS from this endpoint becoming unavailable.
+     *
+     * <p>
+     * All further reads, writes and method calls go through the given guard. While it rejects calls,
+     * they fail with an {@link EndpointUnavailableException} without contacting the server.
+     * Subscriptions are not affected.
+     *
+     * @param guard The guard to use, or <code>null</code> to never reject calls.
+     */
+    public void setGuard(EndpointGuard guard) {
+        this.guard = guard;
+    }
+
+    /**
+     * Gets the guard set by {@link #setGuard(EndpointGuard)}.
+     *
+     * @return The guard, or <code>null</code> if there is none.
+     */
+    public EndpointGuard getGuard() {
+        return guard;
+    }
+
+    /**
+     * Subscribes to value changes of a variable node on the OPC UA server.
+     *
+     * <p>
+     * Instead of reading a value every time it is needed, you can ask the server to monitor a node
+     * and push every change to your listener. This keeps the number of requests to the server
+     * proportional to how often the value changes rather than how often it is read.
+     *
+     * <h2>Example</h2>
+     *
+     * <pre>
+     * <code>
+     * NodeId integerNodeId = new NodeId(1, "SomeIntegerNode");
+     * opcUaClient.subscribe(integerNodeId, Duration.ofMillis(500), new ValueChangeListener() {
+     *     public void valueChanged(Object value) {
+     *         System.out.println("New value: " + value);
+     *     }
+     *
+     *     public void valueInvalidated(OpcUaException cause) {
+     *         System.out.println("Value no longer valid: " + cause.getMessage());
+     *     }
+     * });
+     * </code>
+     * </pre>
+     *
+     * @param nodeId           The id of the variable to monitor.
+     * @param samplingInterval How often the server should check the variable for changes. Monitored
+     *                         items with the same interval share one subscription on the server.
+     *                         {@link Duration#ZERO} lets the server pick its fastest rate.
+     * @param listener         Receives the changed values.
+     *
+     * @return A future which completes once the server has accepted the monitored item. It
+     *         completes exceptionally with an {@link OpcUaException} if the subscription could not be
+     *         created, e.g. because the underlying client does not support subscriptions.
+     */
+    public CompletableFuture<Void> subscribe(NodeId nodeId, Duration samplingInterval, ValueChangeListener listener) {
+        if (!(getBaSyxClient() instanceof MiloOpcUaClient)) {
+            CompletableFuture<Void> unsupported = new CompletableFuture<>();
+            unsupported.completeExceptionally(new OpcUaException(
+                    "Subscriptions are not supported by " + getBaSyxClient().getClass().getName()));
+            return unsupported;
+        }
+
+        long intervalMillis = samplingInterval.toMillis();
+
+        return getSubscription(intervalMillis).thenCompose(subscription -> {
+            ReadValueId readValueId = new ReadValueId(nodeId.getInternalId(), AttributeId.Value.uid(), null,
+                    QualifiedName.NULL_VALUE);
+            MonitoringParameters parameters = new MonitoringParameters(subscription.nextClientHandle(),
+                    (double) intervalMillis, null, uint(1), true);
+            MonitoredItemCreateRequest request = new MonitoredItemCreateRequest(readValueId, MonitoringMode.Reporting,
+                    parameters);
+
+            UaSubscription.ItemCreationCallback onItemCreated = (item, index) -> item.setValueConsumer(
+                    dataValue -> notifyListener(dataValue, listener));
+
+            return subscription.createMonitoredItems(TimestampsToReturn.Neither, Collections.singletonList(request),
+                    onItemCreated);
+        }).thenAccept(items -> {
+            for (UaMonitoredItem item : items) {
+                if (item.getStatusCode().isBad()) {
+                    throw new OpcUaException(String.format("Failed to monitor %s on %s: %s", nodeId, endpoint, item
+                            .getStatusCode()));
+                }
+                monitoredItems.computeIfAbsent(nodeId, id -> new CopyOnWriteArrayList<>()).add(item);
+            }
+        });
+    }
+
+    /**
+     * Stops monitoring the given node. All listeners registered for the node using
+     * {@link #subscribe} will no longer receive values.
+     *
+     * @param nodeId The id of the variable which should no longer be monitored.
+     */
+    public void unsubscribe(NodeId nodeId) {
+        List<UaMonitoredItem> items = monitoredItems.remove(nodeId);
+        if (items == null) {
+            return;
+        }
+
+        for (CompletableFuture<UaSubscription> future : subscriptions.values()) {
+            UaSubscription subscription = future.getNow(null);
+            if (subscription == null) {
+                continue;
+            }
+
+            List<UaMonitoredItem> owned = new ArrayList<>(items);
+            owned.retainAll(subscription.getMonitoredItems());
+            if (!owned.isEmpty()) {
+                subscription.deleteMonitoredItems(owned);
+            }
+        }
+    }
+
+    private CompletableFuture<UaSubscription> getSubscription(long publishingIntervalMillis) {
+        CompletableFuture<UaSubscription> subscription = subscriptions.computeIfAbsent(publishingIntervalMillis,
+                interval -> ((MiloOpcUaClient) subscriptionClient()).getClient().thenCompose(client -> client
+                        .getSubscriptionManager().createSubscription(interval)));
+
+        subscription.whenComplete((created, error) -> {
+            if (error != null) {
+                // Don't keep failures, so that the next call retries.
+                subscriptions.remove(publishingIntervalMillis, subscription);
+            }
+        });
+
+        return subscription;
+    }
+
+    private CompletableFuture<List<Object>> readChunk(List<NodeId> nodeIds) {
+        List<org.eclipse.milo.opcua.stack.core.types.builtin.NodeId> internalIds = new ArrayList<>(nodeIds.size());
+        for (NodeId nodeId : nodeIds) {
+            internalIds.add(nodeId.getInternalId());
+        }
+
+        return send(session -> ((MiloOpcUaClient) session).getClient()
+                .thenCompose(client -> client.readValues(0.0, TimestampsToReturn.Neither, internalIds)))
+                .thenApply(dataValues -> {
+                    List<Object> values = new ArrayList<>(dataValues.size());
+                    for (int i = 0; i < dataValues.size(); i++) {
+                        try {
+                            values.add(MiloTypeMapping.toBaSyx(dataValues.get(i)));
+                        } catch (OpcUaException e) {
+                            values.add(new OpcUaException(String.format("Failed to read %s from %s.", nodeIds
+                                    .get(i), endpoint), e));
+                        }
+                    }
+                    return values;
+                });
+    }
+
+    private CompletableFuture<List<OpcUaException>> writeChunk(List<NodeId> nodeIds, Map<NodeId, Object> values) {
+        List<org.eclipse.milo.opcua.stack.core.types.builtin.NodeId> internalIds = new ArrayList<>(nodeIds.size());
+        List<DataValue> dataValues = new ArrayList<>(nodeIds.size());
+        for (NodeId nodeId : nodeIds) {
+            internalIds.add(nodeId.getInternalId());
+            dataValues.add(MiloTypeMapping.toMilo(values.get(nodeId)));
+        }
+
+        return send(session -> ((MiloOpcUaClient) session).getClient()
+                .thenCompose(client -> client.writeValues(internalIds, dataValues)))
+                .thenApply(statusCodes -> {
+                    List<OpcUaException> results = new ArrayList<>(statusCodes.size());
+                    for (int i = 0; i < statusCodes.size(); i++) {
+                        StatusCode statusCode = statusCodes.get(i);
+                        results.add(statusCode.isBad() ? new OpcUaException(String.format("Failed to write %s on %s (%s).",
+                                nodeIds.get(i), endpoint, statusCode)) : null);
+                    }
+                    return results;
+                });
+    }
+
+    private CompletableFuture<List<Object>> readEach(List<NodeId> nodeIds) {
+        List<CompletableFuture<Object>> reads = new ArrayList<>(nodeIds.size());
+        for (NodeId nodeId : nodeIds) {
+            reads.add(send(client -> client.readValueAsync(nodeId)).exceptionally(error -> new OpcUaException(String.format(
+                    "Failed to read %s from %s.", nodeId, endpoint), error)));
+        }
+
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<Object> values = new ArrayList<>(reads.size());
+            for (CompletableFuture<Object> read : reads) {
+                values.add(read.join());
+            }
+            return values;
+        });
+    }
+
+    private CompletableFuture<List<OpcUaException>> writeEach(Map<NodeId, Object> values) {
+        List<CompletableFuture<OpcUaException>> writes = new ArrayList<>(values.size());
+        for (Map.Entry<NodeId, Object> entry : values.entrySet()) {
+            writes.add(send(client -> client.writeValueAsync(entry.getKey(), entry.getValue())).handle((ignored,
+                    error) -> error == null ? null : new OpcUaException(String.format("Failed to write %s on %s.", entry
+                            .getKey(), endpoint), error)));
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<OpcUaException> results = new ArrayList<>(writes.size());
+            for (CompletableFuture<OpcUaException> write : writes) {
+                results.add(write.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Sends a request on the least busy pooled session, or on {@link #baSyxClient} if this wrapper
+     * isn't pooled. If a guard is set, the request is only sent if the guard admits it.
+     */
+    private <T> CompletableFuture<T> send(Function<IOpcUaClient, CompletableFuture<T>> request) {
+        EndpointGuard guard = this.guard;
+        if (guard != null) {
+            return guard.callAsync(() -> sendUnguarded(request));
+        }
+        return sendUnguarded(request);
+    }
+
+    private <T> CompletableFuture<T> sendUnguarded(Function<IOpcUaClient, CompletableFuture<T>> request) {
+        if (sessions != null) {
+            return sessions.send(request);
+        }
+        return request.apply(baSyxClient);
+    }
+
+    /**
+     * Gets the client subscriptions are created on. The server keeps subscriptions per session, so
+     * pooled wrappers always use the endpoint's first session for them.
+     */
+    private IOpcUaClient subscriptionClient() {
+        return getBaSyxClient();
+    }
+
+    private static List<List<NodeId>> partition(List<NodeId> nodeIds) {
+        List<List<NodeId>> chunks = new ArrayList<>();
+        for (int from = 0; from < nodeIds.size(); from += MAX_NODES_PER_REQUEST) {
+            chunks.add(nodeIds.subList(from, Math.min(from + MAX_NODES_PER_REQUEST, nodeIds.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Waits for the given future and rethrows its failure the same way the synchronous BaSyx client
+     * calls do.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws OpcUaException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OpcUaException) {
+                throw (OpcUaException) cause;
+            }
+            if (cause instanceof EndpointUnavailableException) {
+                throw (EndpointUnavailableException) cause;
+            }
+            throw new OpcUaException(cause);
+        }
+    }
+
+    private static void notifyListener(DataValue dataValue, ValueChangeListener listener) {
+        Object value;
+        try {
+            value = MiloTypeMapping.toBaSyx(dataValue);
+        } catch (OpcUaException e) {
+            listener.valueInvalidated(e);
+            return;
+        }
+        listener.valueChanged(value);
     }
 }
-
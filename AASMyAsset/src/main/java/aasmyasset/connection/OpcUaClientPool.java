@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient;
+
+/**
+ * Shares OPC UA sessions between all variables connected to the same endpoint.
+ *
+ * <p>
+ * The pool hands out one {@link OPCUAConnectorWrapper} per endpoint. Each of them starts with a
+ * single session and opens further sessions, up to a limit, while all of its sessions have more
+ * requests in flight than allowed. Every session is probed periodically by reading the server's
+ * current time. A session which fails its probe is no longer used and is reconnected with
+ * exponential backoff.
+ *
+ * <p>
+ * Connecting and probing happens on the pool's own threads. While an endpoint has no connected
+ * session, requests fail at once with an {@link org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException
+ * OpcUaException} instead of waiting for a connection attempt.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * OpcUaClientPool pool = new OpcUaClientPool(MiloOpcUaClient::new, 4, 32, Duration.ofSeconds(5),
+ *     Duration.ofSeconds(30));
+ * OPCUAConnectorWrapper client = pool.getClient("opc.tcp://localhost:4840");
+ * </code>
+ * </pre>
+ */
+public final class OpcUaClientPool {
+
+    /**
+     * The number of threads used to connect and probe sessions.
+     */
+    private static final int THREADS = 2;
+
+    private final Function<String, IOpcUaClient> clientFactory;
+    private final int maxSessionsPerEndpoint;
+    private final int maxInFlightPerSession;
+    private final long keepAliveMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, OPCUAConnectorWrapper> clients = new ConcurrentHashMap<>();
+    private final Map<String, OpcUaSessionGroup> sessionGroups = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param clientFactory          Creates a new, unconnected client for the given endpoint URL.
+     *                               Called once per session.
+     * @param maxSessionsPerEndpoint The maximum number of sessions opened to a single endpoint.
+     * @param maxInFlightPerSession  The number of requests in flight on every session of an endpoint
+     *                               above which another session is opened.
+     * @param keepAliveInterval      The time between two probes of a connected session.
+     * @param maxBackoff             The maximum time between two reconnection attempts.
+     */
+    public OpcUaClientPool(Function<String, IOpcUaClient> clientFactory, int maxSessionsPerEndpoint,
+            int maxInFlightPerSession, Duration keepAliveInterval, Duration maxBackoff) {
+        if (maxSessionsPerEndpoint < 1 || maxInFlightPerSession < 1) {
+            throw new IllegalArgumentException("Session and request limits must be at least 1.");
+        }
+        this.clientFactory = clientFactory;
+        this.maxSessionsPerEndpoint = maxSessionsPerEndpoint;
+        this.maxInFlightPerSession = maxInFlightPerSession;
+        this.keepAliveMillis = keepAliveInterval.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "opcua-keepalive-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the client for the given endpoint. All callers asking for the same endpoint share the same
+     * client and its sessions. The first call for an endpoint starts connecting in the background.
+     *
+     * @param endpointUrl The endpoint to connect to.
+     *
+     * @return The shared client for the endpoint.
+     */
+    public OPCUAConnectorWrapper getClient(String endpointUrl) {
+        return clients.computeIfAbsent(endpointUrl, url -> {
+            OpcUaSessionGroup sessions = new OpcUaSessionGroup(url, clientFactory, maxSessionsPerEndpoint,
+                    maxInFlightPerSession, keepAliveMillis, maxBackoffMillis, executor);
+            sessionGroups.put(url, sessions);
+            return new OPCUAConnectorWrapper(sessions);
+        });
+    }
+
+    /**
+     * Gets the number of sessions currently open to the given endpoint.
+     *
+     * @param endpointUrl The endpoint.
+     *
+     * @return The number of sessions, or 0 if no client has been requested for the endpoint.
+     */
+    public int getSessionCount(String endpointUrl) {
+        OpcUaSessionGroup sessions = sessionGroups.get(endpointUrl);
+        return sessions == null ? 0 : sessions.size();
+    }
+
+    /**
+     * Stops probing and reconnecting all sessions.
+     */
+    public void shutdown() {
+        for (OpcUaSessionGroup sessions : sessionGroups.values()) {
+            sessions.close();
+        }
+        executor.shutdownNow();
+    }
+}
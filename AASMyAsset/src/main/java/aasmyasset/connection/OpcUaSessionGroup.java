@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient;
+import org.eclipse.basyx.vab.protocol.opcua.connector.milo.MiloOpcUaClient;
+import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
+import org.eclipse.basyx.vab.protocol.opcua.types.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The sessions an {@link OpcUaClientPool} holds for a single endpoint.
+ *
+ * <p>
+ * Sessions are connected and probed on the pool's executor only. Probes don't block its threads
+ * while they wait for the server, so a few slow endpoints don't delay the probes of all others.
+ * Requests are routed to the
+ * connected session with the fewest requests in flight and fail at once if no session is connected,
+ * so that a lost connection never blocks the threads serving the AAS. A session whose probe fails is
+ * retried with exponential backoff.
+ */
+final class OpcUaSessionGroup {
+    private static final Logger logger = LoggerFactory.getLogger(OpcUaSessionGroup.class);
+
+    /**
+     * The node read by the keep-alive probe: <code>Server/ServerStatus/CurrentTime</code>, which
+     * every server provides.
+     */
+    private static final NodeId KEEP_ALIVE_NODE = new NodeId(0, 2258L);
+
+    private static final long INITIAL_BACKOFF_MILLIS = 500;
+
+    private enum State {
+        CONNECTING, UP, DOWN
+    }
+
+    final String endpoint;
+
+    private final Function<String, IOpcUaClient> clientFactory;
+    private final int maxSessions;
+    private final int maxInFlightPerSession;
+    private final long keepAliveMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledExecutorService executor;
+
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    OpcUaSessionGroup(String endpoint, Function<String, IOpcUaClient> clientFactory, int maxSessions,
+            int maxInFlightPerSession, long keepAliveMillis, long maxBackoffMillis,
+            ScheduledExecutorService executor) {
+        this.endpoint = endpoint;
+        this.clientFactory = clientFactory;
+        this.maxSessions = maxSessions;
+        this.maxInFlightPerSession = maxInFlightPerSession;
+        this.keepAliveMillis = keepAliveMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.executor = executor;
+        openSession();
+    }
+
+    /**
+     * Gets the client of the first session. Subscriptions are created on this session only, because
+     * the server keeps them per session.
+     *
+     * <p>
+     * The client of a session is replaced if it failed to connect, so callers must not keep it.
+     */
+    IOpcUaClient primary() {
+        return sessions.get(0).client;
+    }
+
+    /**
+     * Sends a request on the least busy connected session.
+     *
+     * @return The request's result. Fails at once with an {@link OpcUaException} if no session is
+     *         connected.
+     */
+    <T> CompletableFuture<T> send(Function<IOpcUaClient, CompletableFuture<T>> request) {
+        Session session = acquire();
+        if (session == null) {
+            CompletableFuture<T> unavailable = new CompletableFuture<>();
+            unavailable.completeExceptionally(new OpcUaException(String.format(
+                    "Not connected to %s, reconnecting in the background.", endpoint)));
+            return unavailable;
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = request.apply(session.client);
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+
+        return result.whenComplete((value, error) -> {
+            session.inFlight.decrementAndGet();
+            if (error != null) {
+                // Don't wait for the next keep-alive to find out whether the session was lost.
+                probeSoon(session);
+            }
+        });
+    }
+
+    /**
+     * Gets the number of sessions currently open for this endpoint.
+     */
+    int size() {
+        return sessions.size();
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    private Session acquire() {
+        Session best = null;
+        for (Session session : sessions) {
+            if (session.state == State.UP && (best == null || session.inFlight.get() < best.inFlight.get())) {
+                best = session;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        if (best.inFlight.incrementAndGet() > maxInFlightPerSession) {
+            // Even the least busy session is saturated.
+            openSessionIfAllowed();
+        }
+        return best;
+    }
+
+    private synchronized void openSessionIfAllowed() {
+        if (sessions.size() >= maxSessions) {
+            return;
+        }
+        for (Session session : sessions) {
+            if (session.state == State.CONNECTING) {
+                // Wait for the pending session before opening another one.
+                return;
+            }
+        }
+        openSession();
+    }
+
+    private void openSession() {
+        Session session = new Session(clientFactory.apply(endpoint));
+        sessions.add(session);
+        logger.debug("Opening session {} to {}.", sessions.size(), endpoint);
+        executor.execute(() -> keepAlive(session));
+    }
+
+    private void probeSoon(Session session) {
+        if (session.state == State.UP && session.earlyProbePending.compareAndSet(false, true)) {
+            executor.execute(() -> probe(session).whenComplete((delayMillis, error) -> session.earlyProbePending
+                    .set(false)));
+        }
+    }
+
+    /**
+     * Probes the session and schedules the next keep-alive, after the keep-alive interval if the
+     * session is connected or after the current backoff if it isn't.
+     */
+    private void keepAlive(Session session) {
+        if (closed) {
+            return;
+        }
+        probe(session).thenAccept(delayMillis -> {
+            if (closed) {
+                return;
+            }
+            try {
+                executor.schedule(() -> keepAlive(session), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // The pool was shut down.
+            }
+        });
+    }
+
+    /**
+     * Reads the keep-alive node and updates the session's state once the read has completed or timed
+     * out.
+     *
+     * @return A future which completes with the delay until the session should be probed again.
+     */
+    private CompletableFuture<Long> probe(Session session) {
+        CompletableFuture<Object> read;
+        try {
+            read = session.client.readValueAsync(KEEP_ALIVE_NODE);
+        } catch (RuntimeException e) {
+            read = new CompletableFuture<>();
+            read.completeExceptionally(e);
+        }
+
+        CompletableFuture<Object> timedRead = withTimeout(read, Math.max(keepAliveMillis, 1000));
+        CompletableFuture<Long> delay = new CompletableFuture<>();
+        timedRead.whenComplete((value, error) -> {
+            try {
+                executor.execute(() -> delay.complete(probed(session, error)));
+            } catch (RejectedExecutionException e) {
+                delay.completeExceptionally(e);
+            }
+        });
+        return delay;
+    }
+
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeoutMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ScheduledFuture<?> timeout;
+        try {
+            timeout = executor.schedule(() -> result.completeExceptionally(new TimeoutException(String.format(
+                    "No response within %d ms.", timeoutMillis))), timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        future.whenComplete((value, error) -> {
+            timeout.cancel(false);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Updates the session's state after a probe.
+     *
+     * @param error The failure of the probe, or <code>null</code> if the server responded.
+     *
+     * @return The delay until the session should be probed again.
+     */
+    private long probed(Session session, Throwable error) {
+        synchronized (session) {
+            long delayMillis;
+            if (error == null) {
+                if (session.state != State.UP) {
+                    logger.info("Session to {} is connected.", endpoint);
+                }
+                session.state = State.UP;
+                session.backoffMillis = INITIAL_BACKOFF_MILLIS;
+                delayMillis = keepAliveMillis;
+            } else {
+                if (session.state != State.DOWN) {
+                    logger.warn("Session to {} is unavailable: {}", endpoint, causeOf(error).getMessage());
+                }
+                session.state = State.DOWN;
+                replaceIfConnectFailed(session);
+                // Jitter keeps many sessions to the same server from reconnecting in lockstep.
+                delayMillis = session.backoffMillis + ThreadLocalRandom.current().nextLong(session.backoffMillis / 5
+                        + 1);
+                session.backoffMillis = Math.min(session.backoffMillis * 2, maxBackoffMillis);
+            }
+            return delayMillis;
+        }
+    }
+
+    private static Throwable causeOf(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * A Milo client remembers a failed connection attempt forever, so it must be replaced to try
+     * again. Clients which had connected once reconnect on their own and keep their subscriptions.
+     */
+    private void replaceIfConnectFailed(Session session) {
+        if (!(session.client instanceof MiloOpcUaClient) || !session.client.hasConnected()) {
+            return;
+        }
+        if (((MiloOpcUaClient) session.client).getClient().isCompletedExceptionally()) {
+            session.client = clientFactory.apply(endpoint);
+        }
+    }
+
+    private static final class Session {
+        volatile IOpcUaClient client;
+        volatile State state = State.CONNECTING;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicBoolean earlyProbePending = new AtomicBoolean();
+
+        /**
+         * Guarded by the session's monitor.
+         */
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+
+        Session(IOpcUaClient client) {
+            this.client = client;
+        }
+    }
+}
@@ -12,21 +12,26 @@
 package aasmyasset.connection;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.basyx.vab.exception.provider.ProviderException;
 import org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient;
 import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
 import org.eclipse.basyx.vab.protocol.opcua.types.NodeId;
-import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedByte;
-import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedInteger;
-import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedLong;
-import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedShort;
 import com.festo.aas.p4m.connection.PropertyValueConsumer;
 import com.festo.aas.p4m.connection.PropertyValueSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import aasmyasset.metrics.LatencyHistogram;
+import aasmyasset.metrics.MetricsRegistry;
+
 /**
  * This class supplies the current value from a single remote OPC UA variable or writes its value.
  *
@@ -34,16 +39,88 @@ import org.slf4j.LoggerFactory;
  * The value can optionally be cached for a specified amount of time after fetching to increase
  * performance. The cache duration is set during object initialization and can not be changed
  * afterwards.
+ *
+ * <p>
+ * Alternatively, the variable can subscribe to the node (see {@link UpdateMode#SUBSCRIPTION}). The
+ * server then pushes every change into the cache and reads are served from memory. The subscription
+ * is made by {@link #start()} rather than the constructor, so that the server can't call back into a
+ * variable which isn't fully constructed yet.
+ *
+ * <p>
+ * Instances are safe for use by concurrent threads. When the cached value expires, only one thread
+ * reads the value from the server; concurrent callers wait for and share its result. With a
+ * {@link CachePolicy#staleWhileRevalidate stale-while-revalidate} policy, callers get the expired
+ * value at once while the read runs in the background.
+ *
+ * <p>
+ * Writes are synchronous by default. With a {@link WriteBehindQueue}, {@link #applyValue} returns at
+ * once and only the latest value is sent at the queue's rate.
+ *
+ * <p>
+ * If the client's {@link EndpointGuard} rejects a read, the last value read is returned regardless of
+ * its age. Only if no value was read yet, the read fails.
+ *
+ * <p>
+ * The duration of reads, the outcome of cache lookups and the age of the values returned are recorded
+ * in the default {@link MetricsRegistry}, per endpoint.
  */
 public class OpcUaVariable implements PropertyValueConsumer, PropertyValueSupplier {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final OPCUAConnectorWrapper client;
     private final NodeId nodeId;
     private final Duration cacheDuration;
-    private final Class<?> dataType;
 
-    private Instant cacheTimestamp = Instant.MIN;
-    private Object cachedValue;
+    /**
+     * How long a cached value is considered fresh. In {@link UpdateMode#SCHEDULED} this is twice the
+     * cache duration, so that a late tick of the scheduler doesn't cause a synchronous read.
+     */
+    private final long cacheValidityNanos;
+
+    /**
+     * Converts values between the type of the OPC UA variable and the type exposed in the AAS. Looked
+     * up once, so that reads and writes don't need to check the type again.
+     */
+    private final ValueCodec codec;
+    private final UpdateMode updateMode;
+    private final CachePolicy cachePolicy;
+    private final long maxStalenessNanos;
+
+    /**
+     * The cached value together with the time it was fetched. <code>null</code> until the first value
+     * is known.
+     */
+    private final AtomicReference<CacheEntry> cache = new AtomicReference<>();
+
+    /**
+     * The read currently in progress, if any. Callers finding a read in progress wait for its result
+     * instead of starting their own.
+     */
+    private final AtomicReference<CompletableFuture<CacheEntry>> refreshInFlight = new AtomicReference<>();
+
+    /**
+     * Set while the subscription delivers valid values. Only used in {@link UpdateMode#SUBSCRIPTION}.
+     */
+    private volatile boolean subscriptionActive;
+
+    /**
+     * Set once {@link #start()} was called.
+     */
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * The queue writes are handed to instead of being sent at once. <code>null</code> if writes are
+     * synchronous.
+     */
+    private volatile WriteBehindQueue writeBehind;
+
+    /**
+     * The metrics of the endpoint, shared with all other variables of the endpoint.
+     */
+    private final LatencyHistogram readDuration;
+    private final LatencyHistogram valueAge;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheStaleHits;
+    private final LongAdder cacheMisses;
 
     /**
      * Creates a new OPC UA variable connecting to the given node using the given client.
@@ -71,10 +148,99 @@ public class OpcUaVariable implements PropertyValueConsumer, PropertyValueSuppli
      *                      next call to {@link #getValue()}.
      */
     public OpcUaVariable(OPCUAConnectorWrapper client, NodeId nodeId, Class<?> dataType, Duration cacheDuration) {
+        this(client, nodeId, dataType, cacheDuration, UpdateMode.POLLING);
+    }
+
+    /**
+     * Creates a new OPC UA variable connecting to the given node using the given client.
+     *
+     * @param client        The client object to use for communication.
+     * @param nodeId        The node whose value to read or write.
+     * @param dataType      The class matching the type of the OPC UA variable. See table at
+     *                      {@link IOpcUaClient}.
+     * @param cacheDuration In {@link UpdateMode#POLLING}, the maximum age of the cached value before it
+     *                      will be refetched during the next call to {@link #getValue()}. In
+     *                      {@link UpdateMode#SUBSCRIPTION}, the sampling interval requested from the
+     *                      server.
+     * @param updateMode    How the cached value is kept up to date.
+     */
+    public OpcUaVariable(OPCUAConnectorWrapper client, NodeId nodeId, Class<?> dataType, Duration cacheDuration,
+            UpdateMode updateMode) {
+        this(client, nodeId, dataType, cacheDuration, updateMode, CachePolicy.REFRESH);
+    }
+
+    /**
+     * Creates a new OPC UA variable connecting to the given node using the given client.
+     *
+     * @param client        The client object to use for communication.
+     * @param nodeId        The node whose value to read or write.
+     * @param dataType      The class matching the type of the OPC UA variable. See table at
+     *                      {@link IOpcUaClient}.
+     * @param cacheDuration The maximum age of the cached value before it will be refetched.
+     * @param cachePolicy   What to do when the cached value is older than the cache duration.
+     */
+    public OpcUaVariable(OPCUAConnectorWrapper client, NodeId nodeId, Class<?> dataType, Duration cacheDuration,
+            CachePolicy cachePolicy) {
+        this(client, nodeId, dataType, cacheDuration, UpdateMode.POLLING, cachePolicy);
+    }
+
+    /**
+     * Creates a new OPC UA variable connecting to the given node using the given client.
+     *
+     * @param client        The client object to use for communication.
+     * @param nodeId        The node whose value to read or write.
+     * @param dataType      The class matching the type of the OPC UA variable. See table at
+     *                      {@link IOpcUaClient}.
+     * @param cacheDuration In {@link UpdateMode#POLLING}, the maximum age of the cached value before it
+     *                      will be refetched. In {@link UpdateMode#SUBSCRIPTION}, the sampling interval
+     *                      requested from the server.
+     * @param updateMode    How the cached value is kept up to date.
+     * @param cachePolicy   What to do when the cached value is older than the cache duration. In
+     *                      {@link UpdateMode#SUBSCRIPTION}, this only applies while the variable falls
+     *                      back to polling.
+     */
+    public OpcUaVariable(OPCUAConnectorWrapper client, NodeId nodeId, Class<?> dataType, Duration cacheDuration,
+            UpdateMode updateMode, CachePolicy cachePolicy) {
         this.client = client;
         this.nodeId = nodeId;
         this.cacheDuration = cacheDuration;
-        this.dataType = dataType;
+        this.cacheValidityNanos = updateMode == UpdateMode.SCHEDULED ? 2 * cacheDuration.toNanos()
+                : cacheDuration.toNanos();
+        this.codec = ValueCodecs.forType(dataType);
+        this.updateMode = updateMode;
+        this.cachePolicy = cachePolicy;
+        this.maxStalenessNanos = cachePolicy.isStaleWhileRevalidate() ? cachePolicy.getMaxStaleness().toNanos() : 0;
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.readDuration = metrics.histogram("opcua_read_duration_seconds",
+                "Duration of reads of single variables from an OPC UA server.", "endpoint", client.endpoint);
+        this.valueAge = metrics.histogram("opcua_value_age_seconds",
+                "Time since the cached values returned were read or pushed by the server.", "endpoint",
+                client.endpoint);
+        String cacheHelp = "Reads of OPC UA variables by whether they were served from the cache.";
+        this.cacheHits = metrics.counter("opcua_cache_requests_total", cacheHelp, "endpoint", client.endpoint,
+                "result", "hit");
+        this.cacheStaleHits = metrics.counter("opcua_cache_requests_total", cacheHelp, "endpoint", client.endpoint,
+                "result", "stale");
+        this.cacheMisses = metrics.counter("opcua_cache_requests_total", cacheHelp, "endpoint", client.endpoint,
+                "result", "miss");
+    }
+
+    /**
+     * Starts keeping the cached value up to date. In {@link UpdateMode#SUBSCRIPTION}, this subscribes
+     * to the node. In the other modes, it does nothing.
+     *
+     * <p>
+     * Call this once the variable is constructed. If it wasn't called, the first call to
+     * {@link #getValue()} starts the variable. Further calls do nothing.
+     *
+     * @return This variable, so that it can be passed on directly.
+     */
+    public OpcUaVariable start() {
+        if (started.compareAndSet(false, true) && updateMode == UpdateMode.SUBSCRIPTION) {
+            subscribe();
+        }
+        return this;
     }
 
     /**
@@ -86,82 +252,353 @@ public class OpcUaVariable implements PropertyValueConsumer, PropertyValueSuppli
         return nodeId;
     }
 
+    /**
+     * Gets the maximum age of the cached value before it is refetched. In
+     * {@link UpdateMode#SUBSCRIPTION}, this is the sampling interval, in {@link UpdateMode#SCHEDULED}
+     * the refresh period.
+     *
+     * @return The cache duration.
+     */
+    public Duration getCacheDuration() {
+        return cacheDuration;
+    }
+
+    /**
+     * Gets the client this variable uses for communication.
+     */
+    OPCUAConnectorWrapper getClient() {
+        return client;
+    }
+
+    /**
+     * Gets the mode this variable uses to keep its cached value up to date.
+     *
+     * @return The update mode.
+     */
+    public UpdateMode getUpdateMode() {
+        return updateMode;
+    }
+
+    /**
+     * Gets the policy applied when the cached value is older than the cache duration.
+     *
+     * @return The cache policy.
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * Makes {@link #applyValue} return before the value has been written to the server.
+     *
+     * <p>
+     * Values are handed to the given queue, which sends only the latest value of this variable at
+     * its rate. The value is put into the cache at once, so that it is read back immediately. If the
+     * write fails, the cached value is discarded and the failure is logged. Use
+     * {@link #applyValueAsync} to be notified of the outcome and {@link #flush} to send pending
+     * values without delay.
+     *
+     * @param queue The queue to use, or <code>null</code> to write synchronously again. Must use the
+     *              same client as this variable.
+     */
+    public void setWriteBehind(WriteBehindQueue queue) {
+        if (queue != null && queue.getClient() != client) {
+            throw new IllegalArgumentException("Write-behind queue must use the variable's client.");
+        }
+        writeBehind = queue;
+    }
+
     @Override
     public Object getValue() throws ProviderException {
-        if (!cacheValid()) {
-            logger.debug("Property '{}' not cached.", nodeId);
-            fetchValue();
+        if (!started.get()) {
+            start();
+        }
+
+        CacheEntry entry = cache.get();
+        if (cacheValid(entry)) {
+            cacheHits.increment();
+            valueAge.record(System.nanoTime() - entry.timestampNanos);
+            return entry.value;
         }
 
-        return cachedValue;
+        if (entry != null && cachePolicy.isStaleWhileRevalidate()
+                && System.nanoTime() - entry.timestampNanos < maxStalenessNanos) {
+            logger.debug("Property '{}' is stale, refreshing in background.", nodeId);
+            cacheStaleHits.increment();
+            valueAge.record(System.nanoTime() - entry.timestampNanos);
+            refreshInBackground();
+            return entry.value;
+        }
+
+        logger.debug("Property '{}' not cached.", nodeId);
+        cacheMisses.increment();
+        try {
+            return refresh().value;
+        } catch (EndpointUnavailableException e) {
+            if (entry == null) {
+                throw e;
+            }
+            logger.debug("{} is unavailable, returning last value of '{}'.", client.endpoint, nodeId);
+            valueAge.record(System.nanoTime() - entry.timestampNanos);
+            return entry.value;
+        }
     }
 
     @Override
     public void applyValue(Object value) throws ProviderException {
+        if (writeBehind != null) {
+            // The queue logs failed batches; the caller isn't waiting for the outcome.
+            applyValueAsync(value);
+            return;
+        }
+
         logger.debug("Writing '{}' to {} on {}.", value, nodeId, client.endpoint);
+        Object opcUaValue = toOpcUa(value);
 
-        if (!isCorrectType(value)) {
-            String exceptionMessage = String.format(
-                    "Mismatch between configured type (%s) and type of given value (%s)", dataType, value.getClass());
-            throw new IllegalArgumentException(exceptionMessage);
+        client.writeValue(nodeId, opcUaValue);
+        cache.set(new CacheEntry(codec.toBaSyx(opcUaValue), System.nanoTime()));
+    }
+
+    /**
+     * Writes a value to the server without blocking.
+     *
+     * <p>
+     * If a {@link #setWriteBehind write-behind queue} is set, the value is queued and may be replaced
+     * by a later value before it is sent. Otherwise, it is written at once.
+     *
+     * @param value The new value.
+     *
+     * @return A future which completes once the value, or a value which replaced it, has been written.
+     *
+     * @throws IllegalArgumentException if the value doesn't match the variable's type.
+     */
+    public CompletableFuture<Void> applyValueAsync(Object value) {
+        logger.debug("Queueing '{}' for {} on {}.", value, nodeId, client.endpoint);
+        Object opcUaValue = toOpcUa(value);
+        CacheEntry written = new CacheEntry(codec.toBaSyx(opcUaValue), System.nanoTime());
+
+        WriteBehindQueue queue = writeBehind;
+        CompletableFuture<Void> result = queue != null
+                ? queue.submit(nodeId, opcUaValue)
+                : client.writeValuesAsync(Collections.singletonMap(nodeId, opcUaValue));
+
+        cache.set(written);
+        return result.whenComplete((ignored, error) -> {
+            if (error != null) {
+                // Don't serve a value the server never received.
+                cache.compareAndSet(written, null);
+            }
+        });
+    }
+
+    /**
+     * Sends all values waiting in this variable's write-behind queue, including those of other
+     * variables sharing the queue.
+     *
+     * @return A future which completes once the pending values have been written. Completes at once
+     *         if no write-behind queue is set.
+     */
+    public CompletableFuture<Void> flush() {
+        WriteBehindQueue queue = writeBehind;
+        return queue != null ? queue.flush() : CompletableFuture.completedFuture(null);
+    }
+
+    private boolean cacheValid(CacheEntry entry) {
+        if (entry == null) {
+            return false;
+        }
+        if (subscriptionActive) {
+            return true;
         }
+        return System.nanoTime() - entry.timestampNanos < cacheValidityNanos;
+    }
 
-        value = mapBaSyxToUnsigned(value);
+    /**
+     * Reads the value from the server, making sure only one read per variable is in flight at any
+     * time.
+     *
+     * @return The fresh cache entry.
+     */
+    private CacheEntry refresh() throws ProviderException {
+        while (true) {
+            CompletableFuture<CacheEntry> running = refreshInFlight.get();
+            if (running != null) {
+                return awaitRefresh(running);
+            }
+
+            CompletableFuture<CacheEntry> mine = new CompletableFuture<>();
+            if (!refreshInFlight.compareAndSet(null, mine)) {
+                // Another thread started a read in the meantime; join that one.
+                continue;
+            }
 
-        client.writeValue(nodeId, value);
-        cacheTimestamp = Instant.now();
+            runRefresh(mine);
+            return awaitRefresh(mine);
+        }
     }
 
-    private boolean cacheValid() {
-        return cacheTimestamp.plus(cacheDuration).isAfter(Instant.now());
+    /**
+     * Starts reading the value on the cache policy's executor, unless a read is already in flight.
+     */
+    private void refreshInBackground() {
+        CompletableFuture<CacheEntry> mine = new CompletableFuture<>();
+        if (!refreshInFlight.compareAndSet(null, mine)) {
+            return;
+        }
+
+        mine.whenComplete((fresh, error) -> {
+            if (error != null) {
+                logger.warn("Background refresh of {} from {} failed.", nodeId, client.endpoint, error);
+            }
+        });
+
+        try {
+            cachePolicy.getRefreshExecutor().execute(() -> runRefresh(mine));
+        } catch (RejectedExecutionException e) {
+            refreshInFlight.compareAndSet(mine, null);
+            mine.completeExceptionally(e);
+        }
+    }
+
+    private void runRefresh(CompletableFuture<CacheEntry> mine) {
+        try {
+            mine.complete(fetchValue());
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            refreshInFlight.compareAndSet(mine, null);
+        }
+    }
+
+    private static CacheEntry awaitRefresh(CompletableFuture<CacheEntry> running) throws ProviderException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ProviderException(e.getCause());
+        }
+    }
+
+    private void subscribe() {
+        ValueChangeListener listener = new ValueChangeListener() {
+            @Override
+            public void valueChanged(Object value) {
+                subscriptionActive = acceptValue(value);
+            }
+
+            @Override
+            public void valueInvalidated(OpcUaException cause) {
+                logger.debug("Pushed value for {} is invalid, falling back to polling: {}", nodeId, cause
+                        .getMessage());
+                subscriptionActive = false;
+            }
+        };
+
+        client.subscribe(nodeId, cacheDuration, listener).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.warn("Could not subscribe to {} on {}, falling back to polling.", nodeId, client.endpoint,
+                        error);
+            }
+        });
+    }
+
+    /**
+     * Stores a value which was pushed by a subscription.
+     *
+     * @param value The value as returned by {@link OPCUAConnectorWrapper#readValue}.
+     *
+     * @return <code>true</code> if the value was stored, <code>false</code> if it had the wrong type.
+     */
+    boolean acceptValue(Object value) {
+        return acceptValue(value, System.nanoTime());
+    }
+
+    /**
+     * Stores a value which was read from outside, e.g. by a {@link RefreshScheduler}.
+     *
+     * <p>
+     * The same as for reads of the variable itself, a value written or pushed after the read was
+     * requested is newer and kept.
+     *
+     * @param value          The value as returned by {@link OPCUAConnectorWrapper#readValue}.
+     * @param requestedNanos The {@link System#nanoTime()} at which the read was requested.
+     *
+     * @return <code>true</code> if the value had the right type, even if a newer value was kept,
+     *         <code>false</code> if it had the wrong type.
+     */
+    boolean acceptValue(Object value, long requestedNanos) {
+        if (value == null || value.getClass() != codec.getOpcUaType()) {
+            logger.warn("Ignoring value for {} from {}: expected type {} but got {}.", nodeId, client.endpoint,
+                    codec.getOpcUaType(), value == null ? null : value.getClass());
+            return false;
+        }
+
+        storeIfNewer(new CacheEntry(codec.toBaSyx(value), System.nanoTime()), requestedNanos);
+        return true;
     }
 
-    private void fetchValue() throws OpcUaException {
+    private CacheEntry fetchValue() throws OpcUaException {
         logger.debug("Reading value for {} from {}.", nodeId, client.endpoint);
-        Object value = client.readValue(nodeId);
+        long requestedNanos = System.nanoTime();
+        Object value;
+        try {
+            value = client.readValue(nodeId);
+        } finally {
+            readDuration.record(System.nanoTime() - requestedNanos);
+        }
 
-        if (!isCorrectType(value)) {
+        if (value.getClass() != codec.getOpcUaType()) {
             String exceptionMessage = String.format(
-                    "Mismatch between configured type (%s) and type received from OPC UA server (%s)", dataType, value
-                            .getClass());
+                    "Mismatch between configured type (%s) and type received from OPC UA server (%s)", codec
+                            .getOpcUaType(), value.getClass());
             throw new ProviderException(exceptionMessage);
         }
 
-        cachedValue = mapUnsignedToBaSyx(value);
-        cacheTimestamp = Instant.now();
+        return storeIfNewer(new CacheEntry(codec.toBaSyx(value), System.nanoTime()), requestedNanos);
     }
 
-    private Object mapUnsignedToBaSyx(Object value) {
-        if (dataType == UnsignedByte.class) {
-            return ((UnsignedByte) value).toShort();
-        } else if (dataType == UnsignedShort.class) {
-            return ((UnsignedShort) value).toInt();
-        } else if (dataType == UnsignedInteger.class) {
-            return ((UnsignedInteger) value).toLong();
-        } else if (dataType == UnsignedLong.class) {
-            return ((UnsignedLong) value).toBigInteger();
-        } else {
-            return value;
-        }
+    /**
+     * Caches the result of a read, unless a value pushed by the subscription or written while the read
+     * was in flight is newer.
+     *
+     * @return The entry cached afterwards.
+     */
+    private CacheEntry storeIfNewer(CacheEntry fresh, long requestedNanos) {
+        return cache.updateAndGet(current -> current != null && current.timestampNanos - requestedNanos > 0
+                ? current
+                : fresh);
     }
 
-    private Object mapBaSyxToUnsigned(Object value) {
-        if (dataType == UnsignedByte.class) {
-            return ((UnsignedByte) value).toShort();
-        } else if (dataType == UnsignedShort.class) {
-            return ((UnsignedShort) value).toInt();
-        } else if (dataType == UnsignedInteger.class) {
-            return ((UnsignedInteger) value).toLong();
-        } else if (dataType == UnsignedLong.class) {
-            return ((UnsignedLong) value).toBigInteger();
-        } else {
+    /**
+     * Checks a value given by the AAS and converts it to the type of the OPC UA variable. Values which
+     * already have that type are accepted as well.
+     */
+    private Object toOpcUa(Object value) {
+        Class<?> type = value.getClass();
+        if (type == codec.getBaSyxType()) {
+            return codec.toOpcUa(value);
+        } else if (type == codec.getOpcUaType()) {
             return value;
         }
+
+        String exceptionMessage = String.format(
+                "Mismatch between configured type (%s) and type of given value (%s)", codec.getBaSyxType(), type);
+        throw new IllegalArgumentException(exceptionMessage);
     }
 
-    private boolean isCorrectType(Object value) {
-        return value.getClass() == dataType;
+    /**
+     * An immutable pair of a cached value and the time it was fetched, so that both are always
+     * published together.
+     */
+    private static final class CacheEntry {
+        final Object value;
+        final long timestampNanos;
+
+        CacheEntry(Object value, long timestampNanos) {
+            this.value = value;
+            this.timestampNanos = timestampNanos;
+        }
     }
 }
-
-
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.util.EntityUtils;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.protocol.http.server.ExceptionToHTTPCodeMapper;
+
+/**
+ * Non-blocking HTTP client with a pool of keep-alive connections.
+ *
+ * <p>
+ * Requests are sent and received by a small number of I/O threads, so that
+ * many requests to many hosts can be in flight at the same time without
+ * occupying a thread each. Connections are kept open and reused for further
+ * requests to the same host. The number of connections per host is limited,
+ * requests beyond the limit wait for a free connection.
+ *
+ * <p>
+ * The results are delivered on the I/O threads. Don't block in callbacks
+ * attached to the returned futures; hand long-running work over to an
+ * executor instead.
+ *
+ * <p>
+ * One instance is shared by all {@link HTTPConnectorWrapper}s created by
+ * {@link ConnectedDevices#getHTTPClient(String)}.
+ */
+public final class PooledHttpClient implements Closeable {
+
+	private final CloseableHttpAsyncClient client;
+
+	/**
+	 * Creates and starts a new client.
+	 *
+	 * @param maxConnectionsPerHost		The maximum number of connections open to a single host.
+	 * @param maxConnectionsTotal		The maximum number of connections open to all hosts.
+	 * @param keepAlive					How long an idle connection is kept open, unless the server
+	 * 									asks for a shorter time.
+	 * @param timeout					The timeout for establishing a connection and for waiting
+	 * 									for data.
+	 */
+	public PooledHttpClient(int maxConnectionsPerHost, int maxConnectionsTotal, Duration keepAlive, Duration timeout) {
+
+		long keepAliveMillis = keepAlive.toMillis();
+		int timeoutMillis = (int) timeout.toMillis();
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(timeoutMillis)
+				.setConnectionRequestTimeout(timeoutMillis)
+				.setSocketTimeout(timeoutMillis)
+				.build();
+
+		AtomicInteger threadCounter = new AtomicInteger();
+
+		client = HttpAsyncClients.custom()
+				.setMaxConnPerRoute(maxConnectionsPerHost)
+				.setMaxConnTotal(maxConnectionsTotal)
+				.setDefaultRequestConfig(requestConfig)
+				.setDefaultIOReactorConfig(IOReactorConfig.custom().setSoKeepAlive(true).build())
+				.setKeepAliveStrategy((response, context) -> {
+					long requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return requested > 0 ? Math.min(requested, keepAliveMillis) : keepAliveMillis;
+				})
+				.setThreadFactory(runnable -> {
+					Thread thread = new Thread(runnable, "http-client-" + threadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				})
+				.build();
+		client.start();
+	}
+
+	/**
+	 * Performs a HTTP GET.
+	 *
+	 * @param url		The absolute URL of the resource.
+	 * @return			A future which completes with the response body.
+	 */
+	public CompletableFuture<String> get(String url) {
+		return execute(new HttpGet(url));
+	}
+
+	/**
+	 * Performs a HTTP PUT.
+	 *
+	 * @param url		The absolute URL of the resource.
+	 * @param body		The JSON entity to send.
+	 * @return			A future which completes with the response body.
+	 */
+	public CompletableFuture<String> put(String url, String body) {
+		return execute(withBody(new HttpPut(url), body));
+	}
+
+	/**
+	 * Performs a HTTP POST.
+	 *
+	 * @param url		The absolute URL of the resource.
+	 * @param body		The JSON entity to send.
+	 * @return			A future which completes with the response body.
+	 */
+	public CompletableFuture<String> post(String url, String body) {
+		return execute(withBody(new HttpPost(url), body));
+	}
+
+	/**
+	 * Performs a HTTP DELETE.
+	 *
+	 * @param url		The absolute URL of the resource.
+	 * @return			A future which completes with the response body.
+	 */
+	public CompletableFuture<String> delete(String url) {
+		return execute(new HttpDelete(url));
+	}
+
+	/**
+	 * Sends a request.
+	 *
+	 * @param request	The request to send.
+	 * @return			A future which completes with the response body, or exceptionally with a
+	 * 					{@link org.eclipse.basyx.vab.exception.provider.ProviderException ProviderException}
+	 * 					matching the status code if the server didn't answer with success.
+	 */
+	public CompletableFuture<String> execute(HttpUriRequest request) {
+		return execute(request, (response, body) -> {
+			int statusCode = response.getStatusLine().getStatusCode();
+			if (statusCode >= 300) {
+				throw toException(request, statusCode, body);
+			}
+			return body;
+		});
+	}
+
+	/**
+	 * Sends a request and lets the given reader interpret the response, whatever its status code.
+	 */
+	<T> CompletableFuture<T> execute(HttpUriRequest request, ResponseReader<T> reader) {
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+
+		client.execute(request, new FutureCallback<HttpResponse>() {
+
+			@Override
+			public void completed(HttpResponse response) {
+				try {
+					String body = response.getEntity() == null ? ""
+							: EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+					result.complete(reader.read(response, body));
+				} catch (IOException | RuntimeException e) {
+					result.completeExceptionally(e);
+				}
+			}
+
+			@Override
+			public void failed(Exception e) {
+				result.completeExceptionally(e);
+			}
+
+			@Override
+			public void cancelled() {
+				result.cancel(false);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Closes all connections and stops the I/O threads.
+	 */
+	@Override
+	public void close() throws IOException {
+		client.close();
+	}
+
+	/**
+	 * Creates the exception BaSyx' own HTTP connector would throw for the given status code.
+	 */
+	static ProviderException toException(HttpUriRequest request, int statusCode, String body) {
+		return ExceptionToHTTPCodeMapper.mapToException(statusCode, 
+				request.getMethod() + " " + request.getURI() + " failed: " + body);
+	}
+
+	private static HttpUriRequest withBody(HttpEntityEnclosingRequestBase request, String body) {
+		request.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+		return request;
+	}
+
+	/**
+	 * Interprets a response received by {@link PooledHttpClient#execute(HttpUriRequest, ResponseReader)}.
+	 */
+	interface ResponseReader<T> {
+
+		/**
+		 * @param response	The response, whose entity has already been consumed.
+		 * @param body		The response body.
+		 * @return			The result of the request.
+		 */
+		T read(HttpResponse response, String body);
+	}
+}
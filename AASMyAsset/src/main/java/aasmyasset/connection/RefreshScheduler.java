@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
+import org.eclipse.basyx.vab.protocol.opcua.types.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the caches of many {@link OpcUaVariable}s warm using a small, fixed number of threads.
+ *
+ * <p>
+ * Variables are grouped into buckets by their client (i.e. their endpoint) and their cache duration.
+ * Every bucket is refreshed once per cache duration with a single batched read, so the load on each
+ * server is predictable and does not depend on how often the values are requested. A bucket whose
+ * previous read is still in flight skips its tick instead of piling up requests.
+ *
+ * <p>
+ * Only variables created with {@link UpdateMode#SCHEDULED} can be registered. Use
+ * {@link ConnectedDevices#register(OpcUaVariable)} rather than this class directly.
+ */
+public final class RefreshScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshScheduler.class);
+
+    private final ScheduledExecutorService executor;
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param threads The number of threads used to start the batched reads. The reads themselves are
+     *                asynchronous, so a very small number is sufficient even for thousands of
+     *                variables.
+     */
+    public RefreshScheduler(int threads) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "opcua-scheduler-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a variable to the bucket matching its client and cache duration. The bucket is created and
+     * scheduled if it doesn't exist yet.
+     *
+     * @param variable The variable to keep up to date.
+     *
+     * @throws IllegalArgumentException if the variable doesn't use {@link UpdateMode#SCHEDULED} or has
+     *                                  a cache duration of zero.
+     */
+    public void register(OpcUaVariable variable) {
+        if (variable.getUpdateMode() != UpdateMode.SCHEDULED) {
+            throw new IllegalArgumentException("Only variables with update mode SCHEDULED can be registered: "
+                    + variable.getNodeId());
+        }
+        long periodMillis = variable.getCacheDuration().toMillis();
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Scheduled variables need a cache duration of at least 1 ms: "
+                    + variable.getNodeId());
+        }
+
+        BucketKey key = new BucketKey(variable.getClient(), periodMillis);
+        buckets.computeIfAbsent(key, this::startBucket).variables.add(variable);
+    }
+
+    /**
+     * Removes a variable from its bucket. The variable keeps its last value but is no longer
+     * refreshed by this scheduler.
+     *
+     * @param variable The variable to remove.
+     */
+    public void unregister(OpcUaVariable variable) {
+        BucketKey key = new BucketKey(variable.getClient(), variable.getCacheDuration().toMillis());
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.variables.remove(variable);
+        }
+    }
+
+    /**
+     * Gets the number of variables registered with this scheduler.
+     *
+     * @return The number of registered variables.
+     */
+    public int size() {
+        int size = 0;
+        for (Bucket bucket : buckets.values()) {
+            size += bucket.variables.size();
+        }
+        return size;
+    }
+
+    /**
+     * Stops refreshing all buckets.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        buckets.clear();
+    }
+
+    private Bucket startBucket(BucketKey key) {
+        Bucket bucket = new Bucket(key);
+        executor.scheduleWithFixedDelay(bucket::refresh, 0, key.periodMillis, TimeUnit.MILLISECONDS);
+        return bucket;
+    }
+
+    private static final class Bucket {
+        final BucketKey key;
+        final List<OpcUaVariable> variables = new CopyOnWriteArrayList<>();
+        final AtomicBoolean readInFlight = new AtomicBoolean();
+
+        Bucket(BucketKey key) {
+            this.key = key;
+        }
+
+        void refresh() {
+            if (variables.isEmpty() || !readInFlight.compareAndSet(false, true)) {
+                return;
+            }
+
+            List<OpcUaVariable> snapshot = new ArrayList<>(variables);
+            List<NodeId> nodeIds = new ArrayList<>(snapshot.size());
+            for (OpcUaVariable variable : snapshot) {
+                nodeIds.add(variable.getNodeId());
+            }
+
+            long requestedNanos = System.nanoTime();
+            try {
+                key.client.readValuesOrFailures(nodeIds).whenComplete((values, error) -> {
+                    readInFlight.set(false);
+                    if (error != null) {
+                        logger.warn("Scheduled read of {} variables from {} failed.", nodeIds.size(),
+                                key.client.endpoint, error);
+                        return;
+                    }
+                    for (int i = 0; i < snapshot.size(); i++) {
+                        Object value = values.get(i);
+                        if (value instanceof OpcUaException) {
+                            logger.debug("Scheduled read of {} failed: {}", nodeIds.get(i), ((OpcUaException) value)
+                                    .getMessage());
+                        } else {
+                            snapshot.get(i).acceptValue(value, requestedNanos);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Never let an exception escape, it would cancel the periodic task.
+                readInFlight.set(false);
+                logger.warn("Scheduled read of {} variables from {} failed.", nodeIds.size(), key.client.endpoint, e);
+            }
+        }
+    }
+
+    private static final class BucketKey {
+        final OPCUAConnectorWrapper client;
+        final long periodMillis;
+
+        BucketKey(OPCUAConnectorWrapper client, long periodMillis) {
+            this.client = client;
+            this.periodMillis = periodMillis;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey that = (BucketKey) other;
+            return client == that.client && periodMillis == that.periodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(client), periodMillis);
+        }
+    }
+}
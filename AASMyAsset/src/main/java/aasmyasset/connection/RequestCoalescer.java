@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
+import org.eclipse.basyx.vab.protocol.opcua.types.NodeId;
+
+/**
+ * Gathers single-node reads and writes which arrive within a short window and sends them to the
+ * server as one Read or Write service call.
+ *
+ * <p>
+ * Concurrent reads of the same node within one window are answered by a single read. If the same
+ * node is written more than once within one window, only the last value is sent. Each caller
+ * receives the outcome for its own node, so a node which fails doesn't fail the other callers of the
+ * batch, unless the whole request failed.
+ */
+final class RequestCoalescer {
+
+    private final OPCUAConnectorWrapper client;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final Queue<PendingRead> pendingReads = new ConcurrentLinkedQueue<>();
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean readFlushScheduled = new AtomicBoolean();
+    private final AtomicBoolean writeFlushScheduled = new AtomicBoolean();
+
+    RequestCoalescer(OPCUAConnectorWrapper client, Duration window) {
+        this.client = client;
+        this.windowNanos = window.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "opcua-coalescer-" + client.endpoint);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    CompletableFuture<Object> read(NodeId nodeId) {
+        PendingRead read = new PendingRead(nodeId);
+        pendingReads.add(read);
+        if (readFlushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flushReads, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return read.result;
+    }
+
+    CompletableFuture<Void> write(NodeId nodeId, Object value) {
+        PendingWrite write = new PendingWrite(nodeId, value);
+        pendingWrites.add(write);
+        if (writeFlushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flushWrites, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return write.result;
+    }
+
+    private void flushReads() {
+        // Reset before draining: requests arriving from now on schedule the next batch.
+        readFlushScheduled.set(false);
+
+        Map<NodeId, List<CompletableFuture<Object>>> batch = new LinkedHashMap<>();
+        PendingRead read;
+        while ((read = pendingReads.poll()) != null) {
+            batch.computeIfAbsent(read.nodeId, id -> new ArrayList<>()).add(read.result);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<NodeId> nodeIds = new ArrayList<>(batch.keySet());
+        send(() -> client.readValuesOrFailures(nodeIds)).whenComplete((values, error) -> {
+            for (int i = 0; i < nodeIds.size(); i++) {
+                Object value = error == null ? values.get(i) : null;
+                for (CompletableFuture<Object> result : batch.get(nodeIds.get(i))) {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else if (value instanceof OpcUaException) {
+                        // A single bad node must not fail the other reads of the batch.
+                        result.completeExceptionally((OpcUaException) value);
+                    } else {
+                        result.complete(value);
+                    }
+                }
+            }
+        });
+    }
+
+    private void flushWrites() {
+        writeFlushScheduled.set(false);
+
+        Map<NodeId, Object> values = new LinkedHashMap<>();
+        Map<NodeId, List<CompletableFuture<Void>>> batch = new LinkedHashMap<>();
+        PendingWrite write;
+        while ((write = pendingWrites.poll()) != null) {
+            values.put(write.nodeId, write.value);
+            batch.computeIfAbsent(write.nodeId, id -> new ArrayList<>()).add(write.result);
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+
+        List<NodeId> nodeIds = new ArrayList<>(values.keySet());
+        send(() -> client.writeValuesOrFailures(values)).whenComplete((failures, error) -> {
+            for (int i = 0; i < nodeIds.size(); i++) {
+                OpcUaException failure = error == null ? failures.get(i) : null;
+                for (CompletableFuture<Void> result : batch.get(nodeIds.get(i))) {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else if (failure != null) {
+                        result.completeExceptionally(failure);
+                    } else {
+                        result.complete(null);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts a batch request. Failures thrown before the request is sent are reported through the
+     * returned future, so that no caller is left waiting.
+     */
+    private static <T> CompletableFuture<T> send(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private static final class PendingRead {
+        final NodeId nodeId;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        PendingRead(NodeId nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    private static final class PendingWrite {
+        final NodeId nodeId;
+        final Object value;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingWrite(NodeId nodeId, Object value) {
+            this.nodeId = nodeId;
+            this.value = value;
+        }
+    }
+}
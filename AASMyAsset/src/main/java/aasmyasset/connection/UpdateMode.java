@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+/**
+ * Determines how an {@link OpcUaVariable} keeps its cached value up to date.
+ */
+public enum UpdateMode {
+
+    /**
+     * The value is read from the server whenever it is requested and the cached value is older than
+     * the variable's cache duration.
+     */
+    POLLING,
+
+    /**
+     * The variable registers a monitored item on the server, which pushes every change into the
+     * cache. Requests are served from memory. The variable subscribes when it is started using
+     * {@link OpcUaVariable#start()}, or else on the first request. Until the first value arrives, or if
+     * the subscription can't be established, the variable falls back to {@link #POLLING}.
+     */
+    SUBSCRIPTION,
+
+    /**
+     * The variable is refreshed once per cache duration by a {@link RefreshScheduler}, together with
+     * all other variables of the same endpoint and cache duration. Requests are served from memory.
+     * The variable must be registered using {@link ConnectedDevices#register(OpcUaVariable)}. If
+     * scheduled refreshes stop arriving, the variable falls back to {@link #POLLING}.
+     */
+    SCHEDULED
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
+
+/**
+ * Receives the values an OPC UA server pushes for a monitored variable node.
+ *
+ * <p>
+ * Listeners are registered with {@link OPCUAConnectorWrapper#subscribe}. Both methods are called on
+ * the OPC UA client's notification thread and must return quickly.
+ */
+public interface ValueChangeListener {
+
+    /**
+     * Called whenever the server reports a new value for the monitored node.
+     *
+     * @param value The new value, mapped to the same types {@link OPCUAConnectorWrapper#readValue}
+     *              returns.
+     */
+    void valueChanged(Object value);
+
+    /**
+     * Called when the server reports that the monitored value is no longer valid, e.g. because it
+     * sent a bad status code for the node.
+     *
+     * @param cause Describes why the value became invalid.
+     */
+    void valueInvalidated(OpcUaException cause);
+}
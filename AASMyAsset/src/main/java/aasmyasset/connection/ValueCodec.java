@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+/**
+ * Converts the values of one OPC UA data type between the type used by {@link OPCUAConnectorWrapper}
+ * and the type exposed in the AAS.
+ *
+ * <p>
+ * Most types are exposed unchanged. The unsigned integer types, for which Java has no equivalent,
+ * are exposed as the next larger signed type, e.g. {@link
+ * org.eclipse.basyx.vab.protocol.opcua.types.UnsignedByte UnsignedByte} as {@link Short}.
+ *
+ * <p>
+ * Codecs are looked up once per variable using {@link ValueCodecs#forType(Class)}. Their methods
+ * are called with values of the right type only.
+ */
+public interface ValueCodec {
+
+    /**
+     * Gets the class of the values read from and written to the OPC UA server.
+     *
+     * @return The OPC UA side type.
+     */
+    Class<?> getOpcUaType();
+
+    /**
+     * Gets the class of the values exposed in the AAS.
+     *
+     * @return The AAS side type.
+     */
+    Class<?> getBaSyxType();
+
+    /**
+     * Converts a value read from the OPC UA server.
+     *
+     * @param opcUaValue A value of {@link #getOpcUaType()}.
+     *
+     * @return The value as an instance of {@link #getBaSyxType()}.
+     */
+    Object toBaSyx(Object opcUaValue);
+
+    /**
+     * Converts a value to be written to the OPC UA server.
+     *
+     * @param baSyxValue A value of {@link #getBaSyxType()}.
+     *
+     * @return The value as an instance of {@link #getOpcUaType()}.
+     *
+     * @throws IllegalArgumentException if the value is out of the OPC UA type's range.
+     */
+    Object toOpcUa(Object baSyxValue);
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedByte;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedInteger;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedLong;
+import org.eclipse.basyx.vab.protocol.opcua.types.UnsignedShort;
+
+/**
+ * The registry of {@link ValueCodec}s, keyed by the OPC UA side type.
+ *
+ * <p>
+ * Codecs for the unsigned integer types are built in. All other types are passed through unchanged
+ * unless a codec is {@link #register registered} for them.
+ */
+public final class ValueCodecs {
+
+    private static final Map<Class<?>, ValueCodec> codecs = new ConcurrentHashMap<>();
+
+    static {
+        register(new ValueCodec() {
+            @Override
+            public Class<?> getOpcUaType() {
+                return UnsignedByte.class;
+            }
+
+            @Override
+            public Class<?> getBaSyxType() {
+                return Short.class;
+            }
+
+            @Override
+            public Object toBaSyx(Object opcUaValue) {
+                return ((UnsignedByte) opcUaValue).toShort();
+            }
+
+            @Override
+            public Object toOpcUa(Object baSyxValue) {
+                try {
+                    return new UnsignedByte((Short) baSyxValue);
+                } catch (NumberFormatException e) {
+                    throw outOfRange(baSyxValue, UnsignedByte.class, e);
+                }
+            }
+        });
+
+        register(new ValueCodec() {
+            @Override
+            public Class<?> getOpcUaType() {
+                return UnsignedShort.class;
+            }
+
+            @Override
+            public Class<?> getBaSyxType() {
+                return Integer.class;
+            }
+
+            @Override
+            public Object toBaSyx(Object opcUaValue) {
+                return ((UnsignedShort) opcUaValue).toInt();
+            }
+
+            @Override
+            public Object toOpcUa(Object baSyxValue) {
+                try {
+                    return new UnsignedShort((Integer) baSyxValue);
+                } catch (NumberFormatException e) {
+                    throw outOfRange(baSyxValue, UnsignedShort.class, e);
+                }
+            }
+        });
+
+        register(new ValueCodec() {
+            @Override
+            public Class<?> getOpcUaType() {
+                return UnsignedInteger.class;
+            }
+
+            @Override
+            public Class<?> getBaSyxType() {
+                return Long.class;
+            }
+
+            @Override
+            public Object toBaSyx(Object opcUaValue) {
+                return ((UnsignedInteger) opcUaValue).toLong();
+            }
+
+            @Override
+            public Object toOpcUa(Object baSyxValue) {
+                try {
+                    return new UnsignedInteger((Long) baSyxValue);
+                } catch (NumberFormatException e) {
+                    throw outOfRange(baSyxValue, UnsignedInteger.class, e);
+                }
+            }
+        });
+
+        register(new ValueCodec() {
+            @Override
+            public Class<?> getOpcUaType() {
+                return UnsignedLong.class;
+            }
+
+            @Override
+            public Class<?> getBaSyxType() {
+                return BigInteger.class;
+            }
+
+            @Override
+            public Object toBaSyx(Object opcUaValue) {
+                return ((UnsignedLong) opcUaValue).toBigInteger();
+            }
+
+            @Override
+            public Object toOpcUa(Object baSyxValue) {
+                try {
+                    return new UnsignedLong((BigInteger) baSyxValue);
+                } catch (NumberFormatException e) {
+                    throw outOfRange(baSyxValue, UnsignedLong.class, e);
+                }
+            }
+        });
+    }
+
+    private ValueCodecs() {
+    }
+
+    /**
+     * Gets the codec for the given OPC UA side type.
+     *
+     * @param opcUaType The class matching the type of the OPC UA variable. See table at
+     *                  {@link org.eclipse.basyx.vab.protocol.opcua.connector.IOpcUaClient
+     *                  IOpcUaClient}.
+     *
+     * @return The registered codec, or one which passes values through unchanged.
+     */
+    public static ValueCodec forType(Class<?> opcUaType) {
+        ValueCodec codec = codecs.get(opcUaType);
+        return codec != null ? codec : new IdentityCodec(opcUaType);
+    }
+
+    /**
+     * Registers a codec, replacing any codec registered for the same OPC UA side type. Only affects
+     * variables created afterwards.
+     *
+     * @param codec The codec to register.
+     */
+    public static void register(ValueCodec codec) {
+        codecs.put(codec.getOpcUaType(), codec);
+    }
+
+    private static IllegalArgumentException outOfRange(Object value, Class<?> type, NumberFormatException cause) {
+        return new IllegalArgumentException(String.format("Value %s is out of range for %s", value, type
+                .getSimpleName()), cause);
+    }
+
+    private static final class IdentityCodec implements ValueCodec {
+        private final Class<?> type;
+
+        IdentityCodec(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> getOpcUaType() {
+            return type;
+        }
+
+        @Override
+        public Class<?> getBaSyxType() {
+            return type;
+        }
+
+        @Override
+        public Object toBaSyx(Object opcUaValue) {
+            return opcUaValue;
+        }
+
+        @Override
+        public Object toOpcUa(Object baSyxValue) {
+            return baSyxValue;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.connection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.basyx.vab.protocol.opcua.exception.OpcUaException;
+import org.eclipse.basyx.vab.protocol.opcua.types.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decouples writes to an OPC UA server from the callers issuing them.
+ *
+ * <p>
+ * Writes are put into a slot per node and sent to the server at a fixed rate, all pending nodes of
+ * the queue in one batched write. If a node is written again before its previous value has been
+ * sent, only the latest value is sent (last writer wins) and both callers receive the outcome of
+ * that write. Each node's writes complete with the outcome for that node, so a node the server rejects
+ * doesn't fail the other nodes of the batch. At most one batch is in flight at any time, so writes to
+ * the same node reach the server in order.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * WriteBehindQueue queue = new WriteBehindQueue(opcUaClient, Duration.ofMillis(100));
+ * OpcUaVariable setpoint = new OpcUaVariable(opcUaClient, new NodeId(1, "Setpoint"), Double.class);
+ * setpoint.setWriteBehind(queue);
+ * </code>
+ * </pre>
+ */
+public final class WriteBehindQueue {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final OPCUAConnectorWrapper client;
+    private final ScheduledExecutorService executor;
+    private final Map<NodeId, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean batchInFlight = new AtomicBoolean();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * Creates a new queue and starts sending its writes.
+     *
+     * @param client   The client to write with.
+     * @param interval The time between two batches. Pending values of a node are replaced by newer
+     *                 ones within this time.
+     */
+    public WriteBehindQueue(OPCUAConnectorWrapper client, Duration interval) {
+        long intervalMillis = interval.toMillis();
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Write-behind interval must be at least 1 ms: " + interval);
+        }
+
+        this.client = client;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "opcua-write-behind-" + client.endpoint);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sendBatch, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the client this queue writes with.
+     */
+    OPCUAConnectorWrapper getClient() {
+        return client;
+    }
+
+    /**
+     * Queues a value for the given node, replacing any value still pending for it.
+     *
+     * @param nodeId The id of the variable to write.
+     * @param value  The new value to write, already mapped to the type expected by the client.
+     *
+     * @return A future which completes once the value or a value which replaced it has been written,
+     *         or exceptionally if that write failed.
+     */
+    public CompletableFuture<Void> submit(NodeId nodeId, Object value) {
+        PendingWrite write = new PendingWrite(value);
+        pending.merge(nodeId, write, (replaced, latest) -> {
+            latest.result.whenComplete((ignored, error) -> complete(replaced.result, error));
+            return latest;
+        });
+        return write.result;
+    }
+
+    /**
+     * Sends all pending writes without waiting for the next batch.
+     *
+     * @return A future which completes once all writes pending at the time of the call have been
+     *         sent, or exceptionally if any of them failed.
+     */
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (PendingWrite write : pending.values()) {
+            results.add(write.result);
+        }
+
+        flushRequested.set(true);
+        executor.execute(this::sendBatch);
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Gets the number of nodes with a value waiting to be sent.
+     *
+     * @return The number of pending writes.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Stops sending writes. Writes still pending fail.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        IllegalStateException cause = new IllegalStateException("Write-behind queue was shut down.");
+        for (Iterator<PendingWrite> writes = pending.values().iterator(); writes.hasNext();) {
+            writes.next().result.completeExceptionally(cause);
+            writes.remove();
+        }
+    }
+
+    private void sendBatch() {
+        if (pending.isEmpty() || !batchInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        flushRequested.set(false);
+
+        Map<NodeId, Object> values = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (NodeId nodeId : pending.keySet()) {
+            PendingWrite write = pending.remove(nodeId);
+            if (write != null) {
+                values.put(nodeId, write.value);
+                results.add(write.result);
+            }
+        }
+
+        CompletableFuture<List<OpcUaException>> batch;
+        try {
+            batch = client.writeValuesOrFailures(values);
+        } catch (RuntimeException e) {
+            // Never let an exception escape, it would cancel the periodic task.
+            batch = new CompletableFuture<>();
+            batch.completeExceptionally(e);
+        }
+
+        batch.whenComplete((failures, error) -> {
+            batchInFlight.set(false);
+            if (error != null) {
+                logger.warn("Write-behind of {} values to {} failed.", values.size(), client.endpoint, error);
+            }
+            for (int i = 0; i < results.size(); i++) {
+                OpcUaException failure = error == null ? failures.get(i) : null;
+                if (failure != null) {
+                    logger.warn("Write-behind to {} failed.", client.endpoint, failure);
+                }
+                complete(results.get(i), error != null ? error : failure);
+            }
+            if (flushRequested.get() && !executor.isShutdown()) {
+                executor.execute(this::sendBatch);
+            }
+        });
+    }
+
+    private static void complete(CompletableFuture<Void> result, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(null);
+        }
+    }
+
+    private static final class PendingWrite {
+        final Object value;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingWrite(Object value) {
+            this.value = value;
+        }
+    }
+}
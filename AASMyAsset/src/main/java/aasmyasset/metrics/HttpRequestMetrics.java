@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the HTTP requests handled by the server and records how long they
+ * take.
+ *
+ * <p>
+ * The metrics are <code>http_requests_total</code>, labelled with the method
+ * and the class of the status code, e.g. <code>2xx</code>, and
+ * <code>http_request_duration_seconds</code>, labelled with the method. They
+ * are looked up once, so recording a request doesn't allocate.
+ */
+public final class HttpRequestMetrics {
+
+	private static final String[] METHODS = { "GET", "PUT", "POST", "PATCH", "DELETE", "OTHER" };
+	private static final String[] STATUS_CLASSES = { "1xx", "2xx", "3xx", "4xx", "5xx" };
+
+	private final LongAdder[][] requests = new LongAdder[METHODS.length][STATUS_CLASSES.length];
+	private final LatencyHistogram[] durations = new LatencyHistogram[METHODS.length];
+
+	/**
+	 * Creates the metrics in a registry, or uses the ones which already exist.
+	 *
+	 * @param registry	The registry to record to.
+	 */
+	public HttpRequestMetrics(MetricsRegistry registry) {
+		for (int method = 0; method < METHODS.length; method++) {
+			for (int status = 0; status < STATUS_CLASSES.length; status++) {
+				requests[method][status] = registry.counter("http_requests_total", "HTTP requests handled.",
+						"method", METHODS[method], "status", STATUS_CLASSES[status]);
+			}
+			durations[method] = registry.histogram("http_request_duration_seconds",
+					"Duration of handling HTTP requests.", "method", METHODS[method]);
+		}
+	}
+
+	/**
+	 * Records a handled request.
+	 *
+	 * @param method	The HTTP method of the request.
+	 * @param status	The status code of the response.
+	 * @param nanos		How long handling the request took.
+	 */
+	public void record(String method, int status, long nanos) {
+		int methodIndex = indexOf(method);
+		int statusIndex = Math.min(Math.max(status / 100 - 1, 0), STATUS_CLASSES.length - 1);
+		requests[methodIndex][statusIndex].increment();
+		durations[methodIndex].record(nanos);
+	}
+
+	private static int indexOf(String method) {
+		switch (method) {
+		case "GET":
+			return 0;
+		case "PUT":
+			return 1;
+		case "POST":
+			return 2;
+		case "PATCH":
+			return 3;
+		case "DELETE":
+			return 4;
+		default:
+			return 5;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with fixed buckets from 100 µs to 10 s.
+ *
+ * <p>
+ * Recording a duration only increments two {@link LongAdder}s, so it neither
+ * locks nor allocates and can be called on every request. Concurrent threads
+ * don't contend for the same counter.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * long start = System.nanoTime();
+ * ...
+ * histogram.record(System.nanoTime() - start);
+ * </code>
+ * </pre>
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * The upper bounds of the buckets in seconds, as written to the
+	 * exposition. A duration is counted in the first bucket whose bound it
+	 * doesn't exceed.
+	 */
+	static final String[] BOUNDS = { "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025",
+			"0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10" };
+
+	private static final long[] BOUNDS_NANOS = new long[BOUNDS.length];
+
+	static {
+		for (int i = 0; i < BOUNDS.length; i++) {
+			BOUNDS_NANOS[i] = Math.round(Double.parseDouble(BOUNDS[i]) * 1e9);
+		}
+	}
+
+	/**
+	 * One counter per bound, and a last one for longer durations.
+	 */
+	private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+	private final LongAdder sumNanos = new LongAdder();
+
+	LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos	The duration in nanoseconds, e.g. the difference of two
+	 * 				calls to {@link System#nanoTime()}.
+	 */
+	public void record(long nanos) {
+		int bucket = 0;
+		while (bucket < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[bucket]) {
+			bucket++;
+		}
+		buckets[bucket].increment();
+		sumNanos.add(nanos);
+	}
+
+	/**
+	 * Gets the number of durations recorded so far.
+	 *
+	 * @return	The number of durations.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the sum of all durations recorded so far.
+	 *
+	 * @return	The sum in seconds.
+	 */
+	public double getSumSeconds() {
+		return sumNanos.sum() / 1e9;
+	}
+
+	/**
+	 * Gets the number of durations per bucket. The last entry counts the
+	 * durations longer than the last bound.
+	 */
+	long[] getBucketCounts() {
+		long[] counts = new long[buckets.length];
+		for (int i = 0; i < buckets.length; i++) {
+			counts[i] = buckets[i].sum();
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Holds the metrics of this application and writes them in the Prometheus
+ * text format.
+ *
+ * <p>
+ * A metric is identified by its name and its labels, given as pairs of label
+ * name and value. Asking for a counter or histogram which already exists
+ * returns the existing one, so components look their metrics up once when
+ * they are created and only record values afterwards. Counters and gauges of
+ * values kept elsewhere, e.g. the rejection counts of an endpoint guard, are
+ * registered as functions which are called when the metrics are written.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * LatencyHistogram duration = MetricsRegistry.getDefault().histogram("opcua_read_duration_seconds",
+ * 		"Duration of reads from OPC UA servers.", "endpoint", "opc.tcp://localhost:4840");
+ * </code>
+ * </pre>
+ */
+public final class MetricsRegistry {
+
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+	private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Gets the registry exposed by the {@link MetricsServlet} of this
+	 * application.
+	 *
+	 * @return	The shared registry.
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Gets a counter, creating it if needed.
+	 *
+	 * @param name		The name of the metric, e.g. <code>http_requests_total</code>.
+	 * @param help		The description of the metric.
+	 * @param labels	Pairs of label name and value.
+	 * @return			The counter.
+	 */
+	public LongAdder counter(String name, String help, String... labels) {
+		return metric(name, help, Type.COUNTER, labels, LongAdder.class, LongAdder::new);
+	}
+
+	/**
+	 * Registers a counter whose value is kept elsewhere. An existing counter
+	 * with the same labels is replaced.
+	 *
+	 * @param name		The name of the metric.
+	 * @param help		The description of the metric.
+	 * @param value		Gets the current value of the counter.
+	 * @param labels	Pairs of label name and value.
+	 */
+	public void counter(String name, String help, LongSupplier value, String... labels) {
+		family(name, help, Type.COUNTER).samples.put(formatLabels(labels), value);
+	}
+
+	/**
+	 * Registers a gauge. An existing gauge with the same labels is replaced.
+	 *
+	 * @param name		The name of the metric.
+	 * @param help		The description of the metric.
+	 * @param value		Gets the current value of the gauge.
+	 * @param labels	Pairs of label name and value.
+	 */
+	public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+		family(name, help, Type.GAUGE).samples.put(formatLabels(labels), value);
+	}
+
+	/**
+	 * Gets a histogram of durations, creating it if needed. By convention, the
+	 * name ends with <code>_seconds</code>.
+	 *
+	 * @param name		The name of the metric.
+	 * @param help		The description of the metric.
+	 * @param labels	Pairs of label name and value.
+	 * @return			The histogram.
+	 */
+	public LatencyHistogram histogram(String name, String help, String... labels) {
+		return metric(name, help, Type.HISTOGRAM, labels, LatencyHistogram.class, LatencyHistogram::new);
+	}
+
+	/**
+	 * Writes all metrics in the Prometheus text format, version 0.0.4.
+	 *
+	 * @param writer		The writer to write to. Not flushed.
+	 * @throws IOException	If writing fails.
+	 */
+	public void write(Writer writer) throws IOException {
+		for (Family family : families.values()) {
+			writer.write("# HELP " + family.name + " " + escape(family.help, false) + "\n");
+			writer.write("# TYPE " + family.name + " " + family.type.name().toLowerCase(Locale.ROOT) + "\n");
+
+			for (Map.Entry<String, Object> sample : family.samples.entrySet()) {
+				String labels = sample.getKey();
+				Object metric = sample.getValue();
+				if (metric instanceof LatencyHistogram) {
+					writeHistogram(writer, family.name, labels, (LatencyHistogram) metric);
+				} else {
+					writeSample(writer, family.name, labels, value(metric));
+				}
+			}
+		}
+	}
+
+	private static void writeHistogram(Writer writer, String name, String labels, LatencyHistogram histogram)
+			throws IOException {
+		String prefix = labels.isEmpty() ? "" : labels + ",";
+		long[] counts = histogram.getBucketCounts();
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+			String bound = i < LatencyHistogram.BOUNDS.length ? LatencyHistogram.BOUNDS[i] : "+Inf";
+			writeSample(writer, name + "_bucket", prefix + "le=\"" + bound + "\"", Long.toString(cumulative));
+		}
+		writeSample(writer, name + "_sum", labels, format(histogram.getSumSeconds()));
+		writeSample(writer, name + "_count", labels, Long.toString(cumulative));
+	}
+
+	private static void writeSample(Writer writer, String name, String labels, String value) throws IOException {
+		writer.write(name);
+		if (!labels.isEmpty()) {
+			writer.write("{" + labels + "}");
+		}
+		writer.write(" " + value + "\n");
+	}
+
+	private static String value(Object metric) {
+		if (metric instanceof LongAdder) {
+			return Long.toString(((LongAdder) metric).sum());
+		} else if (metric instanceof LongSupplier) {
+			return Long.toString(((LongSupplier) metric).getAsLong());
+		} else {
+			return format(((DoubleSupplier) metric).getAsDouble());
+		}
+	}
+
+	private static String format(double value) {
+		if (value == Double.POSITIVE_INFINITY) {
+			return "+Inf";
+		} else if (value == Double.NEGATIVE_INFINITY) {
+			return "-Inf";
+		}
+		return Double.toString(value);
+	}
+
+	private <T> T metric(String name, String help, Type type, String[] labels, Class<T> metricType,
+			Supplier<T> factory) {
+		Object metric = family(name, help, type).samples.computeIfAbsent(formatLabels(labels), key -> factory.get());
+		if (!metricType.isInstance(metric)) {
+			throw new IllegalArgumentException("The metric " + name + " is registered as a function.");
+		}
+		return metricType.cast(metric);
+	}
+
+	private Family family(String name, String help, Type type) {
+		Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+		if (family.type != type) {
+			throw new IllegalArgumentException(
+					String.format("The metric %s is a %s, not a %s.", name, family.type, type));
+		}
+		return family;
+	}
+
+	/**
+	 * Formats the labels of a metric as <code>name="value",...</code>.
+	 */
+	private static String formatLabels(String[] labels) {
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels must be given as pairs of name and value.");
+		}
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) {
+				result.append(',');
+			}
+			result.append(labels[i]).append("=\"").append(escape(labels[i + 1], true)).append('"');
+		}
+		return result.toString();
+	}
+
+	private static String escape(String text, boolean quotes) {
+		String escaped = text.replace("\\", "\\\\").replace("\n", "\\n");
+		return quotes ? escaped.replace("\"", "\\\"") : escaped;
+	}
+
+	private enum Type {
+		COUNTER, GAUGE, HISTOGRAM
+	}
+
+	/**
+	 * All metrics with the same name.
+	 */
+	private static final class Family {
+		final String name;
+		final String help;
+		final Type type;
+
+		/**
+		 * The metrics by their formatted labels. Either {@link LongAdder}s,
+		 * {@link LatencyHistogram}s, {@link LongSupplier}s or
+		 * {@link DoubleSupplier}s.
+		 */
+		final ConcurrentMap<String, Object> samples = new ConcurrentSkipListMap<>();
+
+		Family(String name, String help, Type type) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the metrics of a {@link MetricsRegistry} to Prometheus, e.g. at
+ * <code>GET /metrics</code>.
+ *
+ * <p>
+ * Ratios, e.g. the cache hit ratio, and rates, e.g. requests per second, are
+ * computed from the counters by Prometheus:
+ *
+ * <pre>
+ * <code>
+ * sum(rate(opcua_cache_requests_total{result="hit"}[1m])) / sum(rate(opcua_cache_requests_total[1m]))
+ * sum by (method) (rate(http_requests_total[1m]))
+ * </code>
+ * </pre>
+ */
+public class MetricsServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final transient MetricsRegistry registry;
+
+	/**
+	 * Creates a new servlet.
+	 *
+	 * @param registry	The registry whose metrics are served.
+	 */
+	public MetricsServlet(MetricsRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		resp.setStatus(200);
+		resp.setContentType(CONTENT_TYPE);
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8));
+		registry.write(writer);
+		writer.flush();
+	}
+}
@@ -24,6 +24,7 @@ import org.eclipse.basyx.aas.metamodel.map.parts.Asset;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
 import com.festo.aas.p4m.connection.SubmodelWrapper;
 
+import aasmyasset.connection.ConnectedDevices;
 import aasmyasset.module.submodels.basic.Basic; 
 
 /**
@@ -59,8 +60,10 @@ public class AASModels {
 	/**
 	 * Constructor Method.
 	 * Creates all components of this AAS model and stores references to them in fields. 
+	 * 
+	 * @param connectors	The connectors to external servers, shared by all submodels. 
 	 */
-	public AASModels() {
+	public AASModels(ConnectedDevices connectors) {
 		
 		Settings settings = AASServer.getSettings();	
 		String assetIdShort = settings.assetName.get();
@@ -77,7 +80,7 @@ public class AASModels {
 		conceptDescriptions = new ConceptDescriptions();
 		aas.setConceptDictionary(Arrays.asList(conceptDescriptions));
 		
-		Basic = new SubmodelWrapper(new Basic());
+		Basic = new SubmodelWrapper(new Basic(connectors));
 		aas.addSubmodel(Basic.getSubmodel());
 		listSubmodels.add(Basic); 
 	}
@@ -13,6 +13,13 @@
 package aasmyasset.module;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -42,6 +49,12 @@ public class AASServer extends BaSyxHTTPServer {
 	private static AASModels models;
 	private static ConnectedDevices connectors;
 	
+	/**
+	 * The content types of the responses which are compressed if {@link Settings#SERVER_COMPRESSION} is enabled. 
+	 */
+	private static final String COMPRESSIBLE_MIME_TYPES = "application/json,text/html,text/plain,text/xml,text/css,"
+			+ "text/javascript,application/javascript";
+	
 	/**
 	 * Creates a new instance of this application. 
 	 * 
@@ -50,6 +63,11 @@ public class AASServer extends BaSyxHTTPServer {
 	 */
 	private AASServer(BaSyxContext context) {
 		super(context);
+		
+		Connector connector = getConnector();
+		if (connector != null) {
+			configureConnector(connector, configuration);
+		}
 	}
 
 	/**
@@ -72,10 +90,7 @@ public class AASServer extends BaSyxHTTPServer {
 		
 		configuration.load();
 		
-		connectors = new ConnectedDevices();
-		models = new AASModels();
-		
-		BaSyxContext context = DeviceContext.forModels(models);
+		BaSyxContext context = createContext(configuration);
 		AASServer app = new AASServer(context);
 		app.start();
 		
@@ -94,6 +109,24 @@ public class AASServer extends BaSyxHTTPServer {
 
 	}
 	
+	/**
+	 * Creates all connectors and models and wires them into the servlets which serve them, without starting a server. 
+	 * 
+	 * <p>
+	 * The servlets can be called in-process, e.g. by benchmarks. 
+	 * 
+	 * @param settings		The loaded settings, which are returned by {@link #getSettings()} from now on. 
+	 * @return				The context to start a server with. 
+	 * @throws Exception	If the connectors can't be created. 
+	 */
+	public static BaSyxContext createContext(Settings settings) throws Exception {
+		configuration = settings;
+		connectors = new ConnectedDevices();
+		models = new AASModels(connectors);
+		
+		return DeviceContext.forModels(models);
+	}
+	
 	/**
 	 * Gets the AAS models this application is serving. 
 	 * 
@@ -125,6 +158,92 @@ public class AASServer extends BaSyxHTTPServer {
 		return configuration;
 	}
 	
+	/**
+	 * Gets the connector of the servlet container, which BaSyx doesn't expose. 
+	 * 
+	 * @return The connector, or <code>null</code> if it can't be accessed. 
+	 */
+	private Connector getConnector() {
+		try {
+			Field tomcat = BaSyxHTTPServer.class.getDeclaredField("tomcat");
+			tomcat.setAccessible(true);
+			return ((Tomcat) tomcat.get(this)).getConnector();
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("Could not access the servlet container. Its default settings are used.", e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Applies the thread, connection, compression and protocol settings to the connector. Must be called before the server is started. 
+	 * 
+	 * @param connector The connector handling the HTTP requests.
+	 * @param settings	The settings to apply. 
+	 */
+	private static void configureConnector(Connector connector, Settings settings) {
+		
+		setConnectorProperty(connector, "maxThreads", settings.SERVER_MAX_THREADS.get());
+		setConnectorProperty(connector, "minSpareThreads", settings.SERVER_MIN_SPARE_THREADS.get());
+		setConnectorProperty(connector, "acceptCount", settings.SERVER_ACCEPT_COUNT.get());
+		setConnectorProperty(connector, "maxConnections", settings.SERVER_MAX_CONNECTIONS.get());
+		setConnectorProperty(connector, "keepAliveTimeout", settings.SERVER_KEEP_ALIVE_TIMEOUT.get());
+		setConnectorProperty(connector, "maxKeepAliveRequests", settings.SERVER_MAX_KEEP_ALIVE_REQUESTS.get());
+		
+		String threadMode = settings.SERVER_THREAD_MODE.get();
+		if ("virtual".equalsIgnoreCase(threadMode)) {
+			Executor executor = createVirtualThreadExecutor();
+			if (executor != null) {
+				connector.getProtocolHandler().setExecutor(executor);
+				logger.info("Handling requests on virtual threads.");
+			}
+		} 
+		else if (!"platform".equalsIgnoreCase(threadMode)) {
+			logger.warn("Unknown thread mode '{}', using platform threads.", threadMode);
+		}
+		
+		if (settings.SERVER_COMPRESSION.get()) {
+			int minSize = settings.SERVER_COMPRESSION_MIN_SIZE.get();
+			connector.setProperty("compression", "on");
+			setConnectorProperty(connector, "compressionMinSize", minSize);
+			connector.setProperty("compressibleMimeType", COMPRESSIBLE_MIME_TYPES);
+		}
+		
+		if (settings.SERVER_HTTP2.get()) {
+			Http2Protocol http2 = new Http2Protocol();
+			if (settings.SERVER_COMPRESSION.get()) {
+				http2.setCompression("on");
+				http2.setCompressionMinSize(settings.SERVER_COMPRESSION_MIN_SIZE.get());
+				http2.setCompressibleMimeType(COMPRESSIBLE_MIME_TYPES);
+			}
+			connector.addUpgradeProtocol(http2);
+			logger.info("Accepting HTTP/2 connections (h2c).");
+		}
+	}
+	
+	private static void setConnectorProperty(Connector connector, String name, int value) {
+		if (!connector.setProperty(name, String.valueOf(value))) {
+			logger.warn("The servlet container doesn't support the setting '{}'.", name);
+		}
+	}
+	
+	/**
+	 * Creates an executor which starts a new virtual thread for each task. 
+	 * 
+	 * <p>
+	 * This application is compiled for Java 8, so the executor is looked up at runtime. 
+	 * 
+	 * @return The executor, or <code>null</code> if the JVM doesn't support virtual threads.
+	 */
+	private static Executor createVirtualThreadExecutor() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("Virtual threads need Java 21 or newer, this is Java {}. Using platform threads.", 
+					System.getProperty("java.version"));
+			return null;
+		}
+	}
+	
 	/**
 	 * Parses the command line arguments passed to this application.
 	 * 
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.valuetype.ValueType;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.valuetype.ValueTypeHelper;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+
+/**
+ * Converts the arguments of an operation invocation to the type of their input
+ * variable.
+ *
+ * <p>
+ * Depending on where the invocation comes from, an argument is e.g. a
+ * {@link BigInteger}, an {@link Integer}, a {@link Double} or a
+ * {@link String}. Numeric input variables are decoded to a primitive
+ * <code>long</code>, <code>double</code> or <code>float</code> without
+ * allocating, and an argument outside the range of the variable's
+ * {@link ValueType} is rejected instead of being truncated. An unbounded
+ * integer type, e.g. <code>integer</code>, is limited to the range of a
+ * <code>long</code>. Arguments which are rejected make the invocation fail with
+ * status 400.
+ *
+ * <h2>Example</h2>
+ *
+ * <pre>
+ * <code>
+ * ArgumentDecoder countDecoder = ArgumentDecoder.of(countInput);
+ * ...
+ * ArgumentDecoder.checkCount(arguments, 1);
+ * long count = countDecoder.asLong(arguments[0]);
+ * </code>
+ * </pre>
+ */
+public final class ArgumentDecoder {
+
+	/**
+	 * 2<sup>63</sup>, the smallest <code>double</code> which doesn't fit in a
+	 * <code>long</code>.
+	 */
+	private static final double TWO_POW_63 = 0x1p63;
+
+	private final String idShort;
+	private final ValueType valueType;
+	private final boolean integral;
+	private final boolean floating;
+	private final long min;
+	private final long max;
+
+	private ArgumentDecoder(String idShort, ValueType valueType, boolean integral, boolean floating, long min,
+			long max) {
+		this.idShort = idShort;
+		this.valueType = valueType;
+		this.integral = integral;
+		this.floating = floating;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Creates the decoder for an input variable.
+	 *
+	 * @param inputVariable	The input variable, whose value type is used.
+	 * @return				The decoder.
+	 */
+	public static ArgumentDecoder of(Property inputVariable) {
+		String idShort = inputVariable.getIdShort();
+		ValueType valueType = inputVariable.getValueType();
+		if (valueType == null) {
+			return new ArgumentDecoder(idShort, null, false, false, 0, 0);
+		}
+
+		switch (valueType) {
+		case Int8:
+			return integral(idShort, valueType, Byte.MIN_VALUE, Byte.MAX_VALUE);
+		case Int16:
+			return integral(idShort, valueType, Short.MIN_VALUE, Short.MAX_VALUE);
+		case Int32:
+			return integral(idShort, valueType, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		case Int64:
+		case Integer:
+			return integral(idShort, valueType, Long.MIN_VALUE, Long.MAX_VALUE);
+		case UInt8:
+			return integral(idShort, valueType, 0, 0xFFL);
+		case UInt16:
+			return integral(idShort, valueType, 0, 0xFFFFL);
+		case UInt32:
+			return integral(idShort, valueType, 0, 0xFFFFFFFFL);
+		case UInt64:
+		case NonNegativeInteger:
+			return integral(idShort, valueType, 0, Long.MAX_VALUE);
+		case PositiveInteger:
+			return integral(idShort, valueType, 1, Long.MAX_VALUE);
+		case NonPositiveInteger:
+			return integral(idShort, valueType, Long.MIN_VALUE, 0);
+		case NegativeInteger:
+			return integral(idShort, valueType, Long.MIN_VALUE, -1);
+		case Double:
+		case Float:
+			return new ArgumentDecoder(idShort, valueType, false, true, 0, 0);
+		default:
+			return new ArgumentDecoder(idShort, valueType, false, false, 0, 0);
+		}
+	}
+
+	/**
+	 * Checks that an invocation passed one argument per input variable.
+	 *
+	 * <p>
+	 * BaSyx only checks this for invocation requests. An operation invoked
+	 * with a plain array of arguments gets whatever the caller sent.
+	 *
+	 * @param arguments	The arguments as received by the invokable.
+	 * @param expected	The number of input variables of the operation.
+	 * @throws MalformedRequestException	If the number of arguments differs.
+	 */
+	public static void checkCount(Object[] arguments, int expected) {
+		int count = arguments == null ? 0 : arguments.length;
+		if (count != expected) {
+			throw new MalformedRequestException(String.format("Expected %d arguments, but got %d.", expected, count));
+		}
+	}
+
+	private static ArgumentDecoder integral(String idShort, ValueType valueType, long min, long max) {
+		return new ArgumentDecoder(idShort, valueType, true, false, min, max);
+	}
+
+	/**
+	 * Decodes an argument of an integer input variable.
+	 *
+	 * @param argument	The argument as received by the invokable.
+	 * @return			The value of the argument.
+	 * @throws MalformedRequestException	If the argument isn't an integer in
+	 * 										the range of the variable.
+	 * @throws IllegalStateException		If the variable isn't an integer.
+	 */
+	public long asLong(Object argument) {
+		if (!integral) {
+			throw new IllegalStateException(String.format("Input variable '%s' of type %s isn't an integer.", idShort,
+					valueType));
+		}
+
+		long value;
+		if (argument instanceof Long || argument instanceof Integer || argument instanceof Short
+				|| argument instanceof Byte) {
+			value = ((Number) argument).longValue();
+		} else if (argument instanceof BigInteger) {
+			BigInteger bigInteger = (BigInteger) argument;
+			if (bigInteger.bitLength() > 63) {
+				throw outOfRange(argument);
+			}
+			value = bigInteger.longValue();
+		} else if (argument instanceof Double || argument instanceof Float) {
+			double number = ((Number) argument).doubleValue();
+			if (number != Math.rint(number) || number < -TWO_POW_63 || number >= TWO_POW_63) {
+				throw outOfRange(argument);
+			}
+			value = (long) number;
+		} else if (argument instanceof BigDecimal) {
+			try {
+				value = ((BigDecimal) argument).longValueExact();
+			} catch (ArithmeticException e) {
+				throw outOfRange(argument);
+			}
+		} else if (argument instanceof String) {
+			try {
+				value = Long.parseLong(((String) argument).trim());
+			} catch (NumberFormatException e) {
+				throw outOfRange(argument);
+			}
+		} else {
+			throw wrongType(argument);
+		}
+
+		if (value < min || value > max) {
+			throw outOfRange(argument);
+		}
+		return value;
+	}
+
+	/**
+	 * Decodes an argument of a <code>float</code> or <code>double</code> input
+	 * variable.
+	 *
+	 * <p>
+	 * Infinity and NaN are accepted if they are sent as such, but not as the
+	 * result of a number too large for the variable.
+	 *
+	 * @param argument	The argument as received by the invokable.
+	 * @return			The value of the argument.
+	 * @throws MalformedRequestException	If the argument isn't a number in
+	 * 										the range of the variable.
+	 * @throws IllegalStateException		If the variable isn't a floating
+	 * 										point number.
+	 */
+	public double asDouble(Object argument) {
+		if (!floating) {
+			throw new IllegalStateException(String.format("Input variable '%s' of type %s isn't a floating point number.",
+					idShort, valueType));
+		}
+
+		double value;
+		boolean special;
+		if (argument instanceof Double || argument instanceof Float) {
+			value = ((Number) argument).doubleValue();
+			special = Double.isNaN(value) || Double.isInfinite(value);
+		} else if (argument instanceof Number) {
+			value = ((Number) argument).doubleValue();
+			special = false;
+		} else if (argument instanceof String) {
+			String string = ((String) argument).trim();
+			switch (string) {
+			case "INF":
+				return Double.POSITIVE_INFINITY;
+			case "-INF":
+				return Double.NEGATIVE_INFINITY;
+			case "NaN":
+				return Double.NaN;
+			default:
+				try {
+					value = Double.parseDouble(string);
+				} catch (NumberFormatException e) {
+					throw outOfRange(argument);
+				}
+				special = false;
+			}
+		} else {
+			throw wrongType(argument);
+		}
+
+		if (!special && (Double.isNaN(value) || Double.isInfinite(value)
+				|| (valueType == ValueType.Float && Math.abs(value) > Float.MAX_VALUE))) {
+			throw outOfRange(argument);
+		}
+		return value;
+	}
+
+	/**
+	 * Decodes an argument of a <code>float</code> input variable.
+	 *
+	 * @param argument	The argument as received by the invokable.
+	 * @return			The value of the argument, rounded to the nearest
+	 * 					<code>float</code>.
+	 * @see #asDouble(Object)
+	 */
+	public float asFloat(Object argument) {
+		return (float) asDouble(argument);
+	}
+
+	/**
+	 * Converts an argument of an input variable of any type to the Java type of
+	 * the variable, e.g. a <code>string</code> to a {@link String}.
+	 *
+	 * <p>
+	 * The conversion is the same as setting the argument as the variable's
+	 * value and reading it back, but the variable itself is left untouched.
+	 *
+	 * @param argument	The argument as received by the invokable.
+	 * @return			The converted argument.
+	 */
+	public Object asObject(Object argument) {
+		return ValueTypeHelper.getJavaObject(ValueTypeHelper.prepareForSerialization(argument), valueType);
+	}
+
+	private MalformedRequestException outOfRange(Object argument) {
+		return new MalformedRequestException(String.format("Argument '%s' of input variable '%s' isn't a valid %s.",
+				argument, idShort, valueType));
+	}
+
+	private MalformedRequestException wrongType(Object argument) {
+		if (argument == null) {
+			return new MalformedRequestException(String.format("Input variable '%s' has no argument.", idShort));
+		}
+		return new MalformedRequestException(String.format("Argument of input variable '%s' is a %s, not a %s.",
+				idShort, argument.getClass().getSimpleName(), valueType));
+	}
+}
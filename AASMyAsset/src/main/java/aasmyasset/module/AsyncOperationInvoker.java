@@ -0,0 +1,442 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.operation.IOperationVariable;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.Operation;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.OperationVariable;
+import org.eclipse.basyx.submodel.restapi.operation.CallbackResponse;
+import org.eclipse.basyx.submodel.restapi.operation.ExecutionState;
+import org.eclipse.basyx.submodel.restapi.operation.InvocationRequest;
+import org.eclipse.basyx.submodel.restapi.operation.InvocationResponse;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import aasmyasset.connection.PooledHttpClient;
+
+/**
+ * Runs asynchronously invoked operations on an executor of this application.
+ *
+ * <p>
+ * Operations invoked with <code>POST .../invoke?async=true</code> are handed
+ * to a fixed pool of worker threads, and the request returns a request handle
+ * at once. The HTTP thread which received the request is not blocked while
+ * the operation is running.
+ *
+ * <p>
+ * The result can be fetched with
+ * <code>GET .../&lt;operation&gt;/invocationList/&lt;requestId&gt;</code>.
+ * Until the operation has finished, this returns an invocation response with
+ * the execution state <code>Initiated</code> or <code>Running</code>.
+ * Alternatively, the client can add <code>&amp;callbackUrl=...</code> to the
+ * invocation to have the result POSTed to it once the operation has finished.
+ * Since the server sends these requests on behalf of any client, callback URLs
+ * are only accepted if they start with one of the configured prefixes, i.e.
+ * have the same scheme, host and port and a path starting with the prefix'
+ * path. Without prefixes or without a client to send them with, callbacks are
+ * disabled.
+ *
+ * <p>
+ * The result is always an invocation response. If the operation was invoked
+ * with plain arguments instead of an invocation request, its return value is
+ * set as the value of a copy of its first output variable, the same as BaSyx
+ * does for its own asynchronous invocations.
+ *
+ * <p>
+ * Finished results are kept for the configured retention time, and at most the
+ * configured number of invocations is kept at all. Once this limit is reached
+ * by invocations which are still running, further invocations are rejected.
+ *
+ * <p>
+ * All other requests are passed on to the wrapped provider unchanged,
+ * including synchronous invocations.
+ */
+public final class AsyncOperationInvoker implements IModelProvider {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncOperationInvoker.class);
+
+	private static final String INVOKE = "/invoke";
+	private static final String INVOCATION_LIST = "/invocationList/";
+	private static final String ASYNC_PARAMETER = "async";
+	private static final String CALLBACK_PARAMETER = "callbackUrl";
+
+	private final IModelProvider provider;
+	private final ExecutorService executor;
+	private final PooledHttpClient callbackClient;
+	private final List<URI> callbackPrefixes;
+	private final long retentionNanos;
+	private final int maxInvocations;
+
+	/**
+	 * All invocations which are running or whose results are retained, keyed
+	 * by their request id, oldest first. Guarded by itself.
+	 */
+	private final LinkedHashMap<String, Invocation> invocations = new LinkedHashMap<>();
+
+	/**
+	 * Creates a new invoker.
+	 *
+	 * @param provider			The provider which actually invokes the
+	 * 							operations and handles all other requests.
+	 * @param threads			The number of operations which may run at the
+	 * 							same time. Further operations wait for a free
+	 * 							thread.
+	 * @param maxInvocations	The maximum number of invocations which are
+	 * 							running, waiting or whose results are retained.
+	 * @param retention			How long the result of a finished invocation is
+	 * 							kept.
+	 * @param callbackClient	The client used to push results to callback
+	 * 							URLs, or <code>null</code> to disable callbacks.
+	 * @param callbackPrefixes	The HTTP URLs which callback URLs may start
+	 * 							with, e.g. <code>http://client:8080/results/</code>.
+	 * 							Blank entries are ignored. If there are none,
+	 * 							callbacks are rejected.
+	 * @throws IllegalArgumentException	If a prefix isn't a HTTP URL.
+	 */
+	public AsyncOperationInvoker(IModelProvider provider, int threads, int maxInvocations, Duration retention,
+			PooledHttpClient callbackClient, Collection<String> callbackPrefixes) {
+
+		this.provider = provider;
+		this.maxInvocations = maxInvocations;
+		this.retentionNanos = retention.toNanos();
+		this.callbackClient = callbackClient;
+		this.callbackPrefixes = new ArrayList<>();
+		for (String prefix : callbackPrefixes) {
+			if (prefix.trim().isEmpty()) {
+				continue;
+			}
+			URI uri = toHttpUri(prefix.trim());
+			if (uri == null) {
+				throw new IllegalArgumentException("The callback prefix must be a HTTP URL: " + prefix);
+			}
+			this.callbackPrefixes.add(uri);
+		}
+
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "operation-" + threadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@Override
+	public Object getValue(String path) throws ProviderException {
+		int index = path.lastIndexOf(INVOCATION_LIST);
+		if (index < 0) {
+			return provider.getValue(path);
+		}
+
+		String requestId = path.substring(index + INVOCATION_LIST.length());
+		Invocation invocation;
+		synchronized (invocations) {
+			evict(0);
+			invocation = invocations.get(requestId);
+		}
+
+		if (invocation == null) {
+			// Might have been invoked using BaSyx' own asynchronous invocation.
+			return provider.getValue(path);
+		}
+		if (!invocation.operationPath.equals(path.substring(0, index))) {
+			throw new ResourceNotFoundException(String.format("Request %s does not belong to this operation.", requestId));
+		}
+		return invocation.getResponse();
+	}
+
+	@Override
+	public Object invokeOperation(String path, Object... parameters) throws ProviderException {
+		int queryIndex = path.indexOf('?');
+		if (queryIndex < 0) {
+			return provider.invokeOperation(path, parameters);
+		}
+
+		Map<String, String> query = parseQuery(path.substring(queryIndex + 1));
+		String invokePath = path.substring(0, queryIndex);
+		if (!"true".equals(query.get(ASYNC_PARAMETER)) || !invokePath.endsWith(INVOKE)) {
+			return provider.invokeOperation(path, parameters);
+		}
+
+		String callbackUrl = query.get(CALLBACK_PARAMETER);
+		if (callbackUrl != null) {
+			callbackUrl = checkCallbackUrl(callbackUrl);
+		}
+
+		Invocation invocation = new Invocation(requestIdOf(parameters),
+				invokePath.substring(0, invokePath.length() - INVOKE.length()), callbackUrl);
+		synchronized (invocations) {
+			evict(1);
+			if (invocations.containsKey(invocation.requestId)) {
+				throw new MalformedRequestException("Request id " + invocation.requestId + " is already in use.");
+			}
+			if (invocations.size() >= maxInvocations) {
+				throw new ProviderException("Too many operations are running. Please try again later.");
+			}
+			invocations.put(invocation.requestId, invocation);
+		}
+
+		executor.execute(() -> invocation.run(invokePath, parameters));
+		return new CallbackResponse(invocation.requestId, callbackUrl == null ? "" : callbackUrl);
+	}
+
+	@Override
+	public void setValue(String path, Object newValue) throws ProviderException {
+		provider.setValue(path, newValue);
+	}
+
+	@Override
+	public void createValue(String path, Object newEntity) throws ProviderException {
+		provider.createValue(path, newEntity);
+	}
+
+	@Override
+	public void deleteValue(String path) throws ProviderException {
+		provider.deleteValue(path);
+	}
+
+	@Override
+	public void deleteValue(String path, Object obj) throws ProviderException {
+		provider.deleteValue(path, obj);
+	}
+
+	/**
+	 * Stops accepting invocations. Running operations are finished.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Removes the results which have been retained long enough, and the oldest
+	 * results beyond the maximum number of invocations. Must hold the lock.
+	 *
+	 * @param room	The number of invocations about to be added.
+	 */
+	private void evict(int room) {
+		long now = System.nanoTime();
+		int excess = invocations.size() + room - maxInvocations;
+		Iterator<Invocation> iterator = invocations.values().iterator();
+		while (iterator.hasNext()) {
+			Invocation invocation = iterator.next();
+			Long finishedNanos = invocation.finishedNanos;
+			if (finishedNanos == null) {
+				continue;
+			}
+			if (excess > 0 || now - finishedNanos > retentionNanos) {
+				iterator.remove();
+				excess--;
+			}
+		}
+	}
+
+	/**
+	 * Checks that a callback URL starts with one of the configured prefixes.
+	 *
+	 * @return	The normalized URL, which the result is pushed to.
+	 * @throws MalformedRequestException	If the URL isn't allowed.
+	 */
+	private String checkCallbackUrl(String callbackUrl) {
+		if (callbackPrefixes.isEmpty() || callbackClient == null) {
+			throw new MalformedRequestException("Callback URLs are not enabled on this server.");
+		}
+		URI uri = toHttpUri(callbackUrl);
+		if (uri == null) {
+			throw new MalformedRequestException("The callback URL must be a HTTP URL: " + callbackUrl);
+		}
+		for (URI prefix : callbackPrefixes) {
+			if (prefix.getScheme().equalsIgnoreCase(uri.getScheme()) && prefix.getHost().equalsIgnoreCase(uri.getHost())
+					&& portOf(prefix) == portOf(uri) && uri.getRawPath().startsWith(prefix.getRawPath())) {
+				return uri.toString();
+			}
+		}
+		throw new MalformedRequestException("The callback URL is not allowed: " + callbackUrl);
+	}
+
+	/**
+	 * Parses and normalizes a HTTP URL without user info.
+	 *
+	 * @return	The URL, or <code>null</code> if it isn't one.
+	 */
+	private static URI toHttpUri(String url) {
+		URI uri;
+		try {
+			uri = new URI(url).normalize();
+		} catch (URISyntaxException e) {
+			return null;
+		}
+		if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+			return null;
+		}
+		if (uri.getHost() == null || uri.getRawUserInfo() != null || uri.getRawPath().startsWith("/..")) {
+			return null;
+		}
+		return uri;
+	}
+
+	private static int portOf(URI uri) {
+		if (uri.getPort() >= 0) {
+			return uri.getPort();
+		}
+		return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+	}
+
+	private void push(Invocation invocation, Object response) {
+		String body = new GSONTools(new DefaultTypeFactory()).serialize(response);
+		callbackClient.post(invocation.callbackUrl, body).whenComplete((ignored, error) -> {
+			if (error != null) {
+				logger.warn("Could not push the result of request {} to {}.", invocation.requestId, invocation.callbackUrl,
+						error);
+			}
+		});
+	}
+
+	private static String requestIdOf(Object[] parameters) {
+		if (parameters.length == 1 && InvocationRequest.isInvocationRequest(parameters[0])) {
+			@SuppressWarnings("unchecked")
+			String requestId = InvocationRequest.createAsFacade((Map<String, Object>) parameters[0]).getRequestId();
+			if (requestId != null && !requestId.isEmpty()) {
+				return requestId;
+			}
+		}
+		return UUID.randomUUID().toString();
+	}
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> parameters = new HashMap<>();
+		for (String parameter : query.split("&")) {
+			int index = parameter.indexOf('=');
+			try {
+				if (index < 0) {
+					parameters.put(URLDecoder.decode(parameter, "UTF-8"), "");
+				} else {
+					parameters.put(URLDecoder.decode(parameter.substring(0, index), "UTF-8"),
+							URLDecoder.decode(parameter.substring(index + 1), "UTF-8"));
+				}
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * A single asynchronous invocation and its result.
+	 */
+	private final class Invocation {
+		final String requestId;
+		final String operationPath;
+
+		/**
+		 * The URL the result is pushed to, or <code>null</code>.
+		 */
+		final String callbackUrl;
+
+		volatile ExecutionState state = ExecutionState.INITIATED;
+
+		/**
+		 * The response of the synchronous invocation, or the failure response.
+		 */
+		volatile Object result;
+
+		/**
+		 * When the operation finished, or <code>null</code> while it is running.
+		 */
+		volatile Long finishedNanos;
+
+		Invocation(String requestId, String operationPath, String callbackUrl) {
+			this.requestId = requestId;
+			this.operationPath = operationPath;
+			this.callbackUrl = callbackUrl;
+		}
+
+		void run(String invokePath, Object[] parameters) {
+			state = ExecutionState.RUNNING;
+			try {
+				result = toResponse(provider.invokeOperation(invokePath, parameters));
+				state = ExecutionState.COMPLETED;
+			} catch (RuntimeException e) {
+				logger.warn("Asynchronous invocation {} of {} failed.", requestId, operationPath, e);
+				result = stateResponse(ExecutionState.FAILED);
+				state = ExecutionState.FAILED;
+			}
+			finishedNanos = System.nanoTime();
+
+			if (callbackUrl != null) {
+				push(this, result);
+			}
+		}
+
+		Object getResponse() {
+			ExecutionState current = state;
+			if (current == ExecutionState.COMPLETED || current == ExecutionState.FAILED) {
+				return result;
+			}
+			return stateResponse(current);
+		}
+
+		/**
+		 * Wraps the return value of an invocation with plain arguments in an
+		 * invocation response. Responses to invocation requests are returned
+		 * as they are.
+		 */
+		@SuppressWarnings("unchecked")
+		private Object toResponse(Object output) {
+			if (output instanceof Map && ((Map<String, Object>) output).containsKey(InvocationResponse.EXECUTIONSTATE)) {
+				return output;
+			}
+
+			Object operation = provider.getValue(operationPath);
+			Collection<IOperationVariable> outputs = new ArrayList<>();
+			if (Operation.isOperation(operation)) {
+				for (IOperationVariable variable : Operation.createAsFacade((Map<String, Object>) operation)
+						.getOutputVariables()) {
+					outputs.add(new OperationVariable(variable.getValue().getLocalCopy()));
+				}
+			}
+			if (!outputs.isEmpty()) {
+				outputs.iterator().next().getValue().setValue(output);
+			}
+			return new InvocationResponse(requestId, Collections.emptyList(), outputs, ExecutionState.COMPLETED);
+		}
+
+		private InvocationResponse stateResponse(ExecutionState state) {
+			return new InvocationResponse(requestId, Collections.emptyList(), Collections.emptyList(), state);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+import org.eclipse.basyx.vab.protocol.http.server.ExceptionToHTTPCodeMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invokes several operations of a submodel with a single request.
+ *
+ * <p>
+ * The request is <code>POST /aas/submodels/&lt;idShort&gt;/submodel/invokeBatch</code>
+ * with an array of invocations:
+ *
+ * <pre>
+ * <code>
+ * [
+ *     { "operation": "Addition", "arguments": [1, 2] },
+ *     { "operation": "Print", "arguments": ["World"] },
+ *     { "operation": "SayHello" }
+ * ]
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The arguments are either an array of plain values, or an invocation request
+ * object as sent to <code>.../invoke</code>, in which case the result is an
+ * invocation response. The response is an array with one entry per
+ * invocation, in the same order:
+ *
+ * <pre>
+ * <code>
+ * [
+ *     { "operation": "Addition", "success": true },
+ *     { "operation": "Print", "success": false, "status": 400, "error": "..." },
+ *     ...
+ * ]
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The <code>result</code> is left out if the operation doesn't return
+ * anything. A failing invocation doesn't affect the others. By default, the
+ * operations are invoked one after the other. With <code>?parallel=true</code>,
+ * they are invoked at the same time on a fixed pool of worker threads.
+ *
+ * <p>
+ * All other requests are passed on to the wrapped provider unchanged.
+ */
+public final class BatchOperationInvoker implements IModelProvider {
+
+	private static final Logger logger = LoggerFactory.getLogger(BatchOperationInvoker.class);
+
+	private static final String INVOKE_BATCH = "/invokeBatch";
+	private static final String SUBMODEL = "submodel";
+	private static final String PARALLEL_PARAMETER = "parallel=true";
+
+	private static final String OPERATION = "operation";
+	private static final String ARGUMENTS = "arguments";
+	private static final String SUCCESS = "success";
+	private static final String RESULT = "result";
+	private static final String STATUS = "status";
+	private static final String ERROR = "error";
+
+	private final IModelProvider provider;
+	private final ExecutorService executor;
+	private final int maxBatchSize;
+
+	/**
+	 * Creates a new invoker.
+	 *
+	 * @param provider		The provider which actually invokes the operations
+	 * 						and handles all other requests.
+	 * @param threads		The number of operations of parallel batches which
+	 * 						may run at the same time.
+	 * @param maxBatchSize	The maximum number of invocations in one batch.
+	 */
+	public BatchOperationInvoker(IModelProvider provider, int threads, int maxBatchSize) {
+
+		this.provider = provider;
+		this.maxBatchSize = maxBatchSize;
+
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "batch-" + threadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@Override
+	public Object invokeOperation(String path, Object... parameters) throws ProviderException {
+		int queryIndex = path.indexOf('?');
+		String batchPath = stripTrailingSlash(queryIndex < 0 ? path : path.substring(0, queryIndex));
+		if (!batchPath.endsWith(INVOKE_BATCH)) {
+			return provider.invokeOperation(path, parameters);
+		}
+
+		String submodelPath = batchPath.substring(0, batchPath.length() - INVOKE_BATCH.length());
+		if (!submodelPath.endsWith(SUBMODEL)) {
+			throw new MalformedRequestException("Batches can only be invoked on a submodel: " + path);
+		}
+		boolean parallel = queryIndex >= 0
+				&& Arrays.asList(path.substring(queryIndex + 1).split("&")).contains(PARALLEL_PARAMETER);
+
+		List<Invocation> invocations = parse(submodelPath, parameters);
+		List<Map<String, Object>> results = new ArrayList<>(invocations.size());
+		if (parallel) {
+			List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(invocations.size());
+			for (Invocation invocation : invocations) {
+				futures.add(CompletableFuture.supplyAsync(invocation::run, executor));
+			}
+			for (CompletableFuture<Map<String, Object>> future : futures) {
+				results.add(future.join());
+			}
+		} else {
+			for (Invocation invocation : invocations) {
+				results.add(invocation.run());
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public Object getValue(String path) throws ProviderException {
+		return provider.getValue(path);
+	}
+
+	@Override
+	public void setValue(String path, Object newValue) throws ProviderException {
+		provider.setValue(path, newValue);
+	}
+
+	@Override
+	public void createValue(String path, Object newEntity) throws ProviderException {
+		provider.createValue(path, newEntity);
+	}
+
+	@Override
+	public void deleteValue(String path) throws ProviderException {
+		provider.deleteValue(path);
+	}
+
+	@Override
+	public void deleteValue(String path, Object obj) throws ProviderException {
+		provider.deleteValue(path, obj);
+	}
+
+	/**
+	 * Stops accepting parallel batches. Running operations are finished.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Checks the whole batch before anything is invoked.
+	 */
+	private List<Invocation> parse(String submodelPath, Object[] entries) {
+		if (entries.length > maxBatchSize) {
+			throw new MalformedRequestException(
+					String.format("A batch may contain at most %d invocations, not %d.", maxBatchSize, entries.length));
+		}
+
+		List<Invocation> invocations = new ArrayList<>(entries.length);
+		for (Object entry : entries) {
+			if (!(entry instanceof Map)) {
+				throw new MalformedRequestException("Every invocation of a batch must be an object.");
+			}
+			Map<?, ?> map = (Map<?, ?>) entry;
+
+			Object operation = map.get(OPERATION);
+			if (!(operation instanceof String) || ((String) operation).isEmpty() || ((String) operation).contains("/")) {
+				throw new MalformedRequestException("Every invocation of a batch needs the idShort of an operation.");
+			}
+
+			Object arguments = map.get(ARGUMENTS);
+			Object[] parameters;
+			if (arguments == null) {
+				parameters = new Object[0];
+			} else if (arguments instanceof Collection) {
+				parameters = ((Collection<?>) arguments).toArray();
+			} else if (arguments instanceof Map) {
+				parameters = new Object[] { arguments };
+			} else {
+				throw new MalformedRequestException(
+						"The arguments of " + operation + " must be an array or an invocation request.");
+			}
+
+			invocations.add(new Invocation((String) operation,
+					submodelPath + "/submodelElements/" + operation + "/invoke", parameters));
+		}
+		return invocations;
+	}
+
+	private static String stripTrailingSlash(String path) {
+		return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+	}
+
+	/**
+	 * A single invocation of a batch.
+	 */
+	private final class Invocation {
+		final String operation;
+		final String invokePath;
+		final Object[] parameters;
+
+		Invocation(String operation, String invokePath, Object[] parameters) {
+			this.operation = operation;
+			this.invokePath = invokePath;
+			this.parameters = parameters;
+		}
+
+		Map<String, Object> run() {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put(OPERATION, operation);
+			try {
+				Object value = provider.invokeOperation(invokePath, parameters);
+				result.put(SUCCESS, true);
+				result.put(RESULT, value);
+			} catch (ProviderException e) {
+				result.put(SUCCESS, false);
+				result.put(STATUS, ExceptionToHTTPCodeMapper.mapFromException(e));
+				result.put(ERROR, e.getMessage());
+			} catch (RuntimeException e) {
+				logger.warn("Invocation of {} in a batch failed.", invokePath, e);
+				result.put(SUCCESS, false);
+				result.put(STATUS, 500);
+				result.put(ERROR, e.getMessage());
+			}
+			return result;
+		}
+	}
+}
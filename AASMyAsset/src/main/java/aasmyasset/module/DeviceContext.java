@@ -11,13 +11,17 @@
  ******************************************************************************/
 package aasmyasset.module;
 
-import javax.servlet.http.HttpServlet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.eclipse.basyx.aas.restapi.AASModelProvider;
 import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
 import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
-import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
 import org.eclipse.basyx.vab.protocol.http.server.BaSyxContext;
-import org.eclipse.basyx.vab.protocol.http.server.VABHTTPInterface;
+
+import aasmyasset.metrics.MetricsRegistry;
+import aasmyasset.metrics.MetricsServlet;
 
 /**
  * Device Context returns an Object of Type 'BaSyxContext' for each SubModels. 
@@ -26,20 +30,40 @@ public final class DeviceContext {
 	
 	public static BaSyxContext forModels(AASModels models) {
 		
-		String hostName = AASServer.getSettings().applicationHostname.get();
-		int port = AASServer.getSettings().applicationPort.get();
+		Settings settings = AASServer.getSettings();
+		String hostName = settings.applicationHostname.get();
+		int port = settings.applicationPort.get();
 		BaSyxContext context = new BaSyxContext("", "", hostName, port);
 		
 		MultiSubmodelProvider aasProvider = new MultiSubmodelProvider();
 		aasProvider.setAssetAdministrationShell(new AASModelProvider(models.aas));
 		
+		ElementPathIndex index = new ElementPathIndex();
 		models.getSubmodels().forEach((sm) -> {
 			aasProvider.addSubmodel(new SubmodelProvider(sm.getSubmodel()));
+			index.register(sm.getSubmodel());
 		});
 		
-		HttpServlet servlet = new VABHTTPInterface<IModelProvider>(aasProvider);
+		// Resolves element values and invocations by their idShort paths.
+		IndexedModelProvider indexedProvider = new IndexedModelProvider(aasProvider, index);
+		String callbackPrefixes = settings.OPERATIONS_ASYNC_CALLBACK_PREFIXES.get();
+		AsyncOperationInvoker invoker = new AsyncOperationInvoker(indexedProvider, settings.OPERATIONS_ASYNC_THREADS.get(), 
+				settings.OPERATIONS_ASYNC_MAX_INVOCATIONS.get(), Duration.ofSeconds(settings.OPERATIONS_ASYNC_RETENTION.get()), 
+				AASServer.getConnectors().getPooledHttpClient(), 
+				callbackPrefixes == null ? Collections.emptyList() : Arrays.asList(callbackPrefixes.split(",")));
+		BatchOperationInvoker batchInvoker = new BatchOperationInvoker(invoker, settings.OPERATIONS_BATCH_THREADS.get(), 
+				settings.OPERATIONS_BATCH_MAX_SIZE.get());
+		
+		// Serves GETs of whole submodels from pre-serialized snapshots.
+		SnapshotHTTPInterface servlet = new SnapshotHTTPInterface(batchInvoker);
+		models.getSubmodels().forEach((sm) -> {
+			servlet.register(sm.getSubmodel());
+		});
 		context.addServletMapping("/*", servlet);
 		
+		// Exposes the metrics recorded by the servlet, the submodels and the connectors to Prometheus.
+		context.addServletMapping("/metrics", new MetricsServlet(MetricsRegistry.getDefault()));
+		
 		return context;
 		
 	}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.qualifier.Referable;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElementCollection;
+import org.eclipse.basyx.submodel.restapi.SubmodelElementProvider;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+import org.eclipse.basyx.vab.modelprovider.lambda.VABLambdaProvider;
+
+/**
+ * Index of the full idShort paths of all submodel elements, e.g.
+ * <code>aas/submodels/Basic/submodel/submodelElements/Addition</code>.
+ *
+ * <p>
+ * The index is a trie with one node per path segment. Each node keeps its
+ * children in an open addressing hash table, which is probed with a region of
+ * the requested path, so a lookup takes time proportional to the length of the
+ * path and doesn't allocate anything, however many and however deeply nested
+ * the elements are. Elements inside of submodel element collections are
+ * indexed as well.
+ *
+ * <p>
+ * The nodes are never changed once they are published. When a submodel is
+ * registered or re-indexed, its nodes are built anew and swapped in, so lookups
+ * don't need any locks.
+ */
+public final class ElementPathIndex {
+
+	private static final String AAS = "aas";
+	private static final String SUBMODELS = "submodels";
+	private static final String SUBMODEL = "submodel";
+	private static final String VALUE = "value";
+
+	/**
+	 * The registered submodels by their idShort. Guarded by <code>this</code>.
+	 */
+	private final Map<String, Submodel> submodels = new LinkedHashMap<>();
+
+	/**
+	 * The indexed submodels by their idShort. Guarded by <code>this</code>.
+	 */
+	private final Map<String, Node> submodelNodes = new LinkedHashMap<>();
+
+	private volatile Node root = Node.EMPTY;
+
+	/**
+	 * Indexes all elements of a submodel.
+	 *
+	 * @param submodel	The submodel as added to the AAS provider.
+	 */
+	public synchronized void register(Submodel submodel) {
+		submodels.put(submodel.getIdShort(), submodel);
+		index(submodel.getIdShort());
+	}
+
+	/**
+	 * Indexes the elements of a registered submodel again, after elements were
+	 * added, replaced or removed.
+	 *
+	 * @param idShort	The idShort of the submodel.
+	 */
+	public synchronized void reindex(String idShort) {
+		if (submodelNodes.containsKey(idShort)) {
+			index(idShort);
+		}
+	}
+
+	/**
+	 * Drops a submodel from the index, e.g. after it was replaced or deleted as a
+	 * whole. Its paths aren't found anymore.
+	 *
+	 * @param idShort	The idShort of the submodel.
+	 */
+	public synchronized void remove(String idShort) {
+		if (submodelNodes.remove(idShort) != null) {
+			publish();
+		}
+	}
+
+	/**
+	 * Drops all submodels from the index.
+	 */
+	public synchronized void clear() {
+		submodelNodes.clear();
+		publish();
+	}
+
+	/**
+	 * Gets the provider of the element whose path is followed by a single
+	 * segment, e.g. <code>value</code> or <code>invoke</code>.
+	 *
+	 * @param path		The VAB path, with or without leading and trailing
+	 * 					slashes.
+	 * @param suffix	The last segment of the path.
+	 * @return			The provider of the element, or <code>null</code> if the
+	 * 					path isn't an indexed element followed by the suffix.
+	 */
+	IModelProvider find(String path, String suffix) {
+		Element element = lookup(path, suffix);
+		return element == null ? null : element.getProvider();
+	}
+
+	/**
+	 * Checks whether a path found by {@link #find(String, String)} is a
+	 * submodel element collection, whose nested elements are indexed as well.
+	 *
+	 * @param path		The VAB path, with or without leading and trailing
+	 * 					slashes.
+	 * @param suffix	The last segment of the path.
+	 * @return			<code>true</code> if the path is an indexed collection
+	 * 					followed by the suffix.
+	 */
+	boolean isCollection(String path, String suffix) {
+		Element element = lookup(path, suffix);
+		return element != null && element.collection;
+	}
+
+	private Element lookup(String path, String suffix) {
+		int start = path.startsWith("/") ? 1 : 0;
+		int end = path.endsWith("/") ? path.length() - 1 : path.length();
+		int suffixStart = end - suffix.length();
+		if (suffixStart <= start || path.charAt(suffixStart - 1) != '/'
+				|| !path.regionMatches(suffixStart, suffix, 0, suffix.length()) || path.indexOf('?') >= 0) {
+			return null;
+		}
+
+		end = suffixStart - 1;
+		Node node = root;
+		int position = start;
+		while (node != null && position < end) {
+			int next = path.indexOf('/', position);
+			if (next < 0 || next > end) {
+				next = end;
+			}
+			node = node.child(path, position, next);
+			position = next + 1;
+		}
+		return node == null ? null : node.element;
+	}
+
+	private void index(String idShort) {
+		Object elements = submodels.get(idShort).get(Submodel.SUBMODELELEMENT);
+		Node elementsNode = new Node(children(elements), null);
+		submodelNodes.put(idShort, new Node(Collections.singletonMap(SUBMODEL,
+				new Node(Collections.singletonMap(Submodel.SUBMODELELEMENT, elementsNode), null)), null));
+		publish();
+	}
+
+	private void publish() {
+		Node submodelsNode = new Node(submodelNodes, null);
+		root = new Node(Collections.singletonMap(AAS,
+				new Node(Collections.singletonMap(SUBMODELS, submodelsNode), null)), null);
+	}
+
+	/**
+	 * Creates the nodes of elements and the elements they contain.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, Node> children(Object elements) {
+		Collection<?> values;
+		if (elements instanceof Map) {
+			values = ((Map<?, ?>) elements).values();
+		} else if (elements instanceof Collection) {
+			values = (Collection<?>) elements;
+		} else {
+			// Nothing, or elements behind a getter, which are left to BaSyx.
+			return Collections.emptyMap();
+		}
+
+		Map<String, Node> children = new HashMap<>();
+		for (Object value : values) {
+			if (!(value instanceof Map)) {
+				continue;
+			}
+			Map<String, Object> element = (Map<String, Object>) value;
+			Object idShort = element.get(Referable.IDSHORT);
+			if (!(idShort instanceof String) || ((String) idShort).isEmpty() || ((String) idShort).contains("/")) {
+				continue;
+			}
+
+			boolean collection = SubmodelElementCollection.isSubmodelElementCollection(element);
+			Map<String, Node> nested = collection ? children(element.get(VALUE)) : Collections.emptyMap();
+			children.put((String) idShort, new Node(nested, new Element(element, collection)));
+		}
+		return children;
+	}
+
+	/**
+	 * A segment of an indexed path.
+	 */
+	private static final class Node {
+
+		static final Node EMPTY = new Node(Collections.emptyMap(), null);
+
+		final String[] keys;
+		final Node[] children;
+		final int mask;
+
+		/**
+		 * The element whose path ends at this node, if any.
+		 */
+		final Element element;
+
+		Node(Map<String, Node> children, Element element) {
+			int size = 1;
+			while (size < children.size() * 2) {
+				size <<= 1;
+			}
+			this.keys = new String[size];
+			this.children = new Node[size];
+			this.mask = size - 1;
+			this.element = element;
+
+			for (Map.Entry<String, Node> child : children.entrySet()) {
+				int index = spread(child.getKey().hashCode()) & mask;
+				while (keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = child.getKey();
+				this.children[index] = child.getValue();
+			}
+		}
+
+		/**
+		 * Gets the child named by the characters of a path from start
+		 * (inclusive) to end (exclusive).
+		 */
+		Node child(String path, int start, int end) {
+			int length = end - start;
+			// Same as String.hashCode() of the segment.
+			int hash = 0;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + path.charAt(i);
+			}
+
+			for (int index = spread(hash) & mask; keys[index] != null; index = (index + 1) & mask) {
+				String key = keys[index];
+				if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+					return children[index];
+				}
+			}
+			return null;
+		}
+
+		private static int spread(int hash) {
+			return hash ^ (hash >>> 16);
+		}
+	}
+
+	/**
+	 * An indexed element.
+	 */
+	private static final class Element {
+
+		private final Map<String, Object> model;
+
+		/**
+		 * Whether the element is a submodel element collection, whose value
+		 * holds indexed elements.
+		 */
+		final boolean collection;
+
+		/**
+		 * Created on first use, since finding the right provider reads the
+		 * element, which may call its getters.
+		 */
+		private volatile IModelProvider provider;
+
+		Element(Map<String, Object> model, boolean collection) {
+			this.model = model;
+			this.collection = collection;
+		}
+
+		IModelProvider getProvider() {
+			IModelProvider result = provider;
+			if (result == null) {
+				// The same as the one BaSyx creates for each request, only once.
+				result = new SubmodelElementProvider(new VABLambdaProvider(model));
+				provider = result;
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.modelprovider.VABPathTools;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+
+/**
+ * Resolves the most frequent requests on submodel elements with an
+ * {@link ElementPathIndex} instead of walking the AAS and submodel providers.
+ *
+ * <p>
+ * These are reading and writing the value of an element, i.e.
+ * <code>.../submodelElements/&lt;idShort path&gt;/value</code>, and invoking an
+ * operation synchronously, i.e.
+ * <code>.../submodelElements/&lt;idShort path&gt;/invoke</code>. They are
+ * handled by the same element provider BaSyx would end up at, so the results
+ * and errors are the same.
+ *
+ * <p>
+ * All other requests are passed on to the wrapped provider unchanged. After a
+ * request which may have added, replaced or removed elements, including
+ * writing the value of a submodel element collection, the submodel is indexed
+ * again. A submodel which was replaced or deleted as a whole is dropped
+ * from the index and left to the wrapped provider from then on.
+ */
+public final class IndexedModelProvider implements IModelProvider {
+
+	private static final String VALUE = "value";
+	private static final String INVOKE = "invoke";
+
+	private final IModelProvider provider;
+	private final ElementPathIndex index;
+
+	/**
+	 * Creates a new provider.
+	 *
+	 * @param provider	The AAS provider handling all other requests.
+	 * @param index		The index of the submodels added to the provider.
+	 */
+	public IndexedModelProvider(IModelProvider provider, ElementPathIndex index) {
+		this.provider = provider;
+		this.index = index;
+	}
+
+	@Override
+	public Object getValue(String path) throws ProviderException {
+		IModelProvider element = index.find(path, VALUE);
+		return element == null ? provider.getValue(path) : element.getValue(VALUE);
+	}
+
+	@Override
+	public void setValue(String path, Object newValue) throws ProviderException {
+		IModelProvider element = index.find(path, VALUE);
+		if (element != null && !index.isCollection(path, VALUE)) {
+			element.setValue(VALUE, newValue);
+			return;
+		}
+		// Replacing the value of a collection replaces the elements it contains,
+		// so they are indexed again the same as after any other change.
+		try {
+			if (element != null) {
+				element.setValue(VALUE, newValue);
+			} else {
+				provider.setValue(path, newValue);
+			}
+		} finally {
+			changed(path);
+		}
+	}
+
+	@Override
+	public void createValue(String path, Object newEntity) throws ProviderException {
+		try {
+			provider.createValue(path, newEntity);
+		} finally {
+			changed(path);
+		}
+	}
+
+	@Override
+	public void deleteValue(String path) throws ProviderException {
+		try {
+			provider.deleteValue(path);
+		} finally {
+			changed(path);
+		}
+	}
+
+	@Override
+	public void deleteValue(String path, Object obj) throws ProviderException {
+		try {
+			provider.deleteValue(path, obj);
+		} finally {
+			changed(path);
+		}
+	}
+
+	@Override
+	public Object invokeOperation(String path, Object... parameters) throws ProviderException {
+		IModelProvider element = index.find(path, INVOKE);
+		return element == null ? provider.invokeOperation(path, parameters)
+				: element.invokeOperation(INVOKE, parameters);
+	}
+
+	/**
+	 * Updates the index after a request which may have changed the structure
+	 * of the model.
+	 */
+	private void changed(String path) {
+		int queryIndex = path.indexOf('?');
+		String[] elements = VABPathTools.splitPath(queryIndex < 0 ? path : path.substring(0, queryIndex));
+		if (elements.length == 0 || !elements[0].equals("aas")) {
+			return;
+		}
+		if (elements.length <= 2) {
+			// The AAS itself, which may have replaced or removed submodels.
+			if (elements.length == 1 || elements[1].equals("submodels")) {
+				index.clear();
+			}
+		} else if (elements[1].equals("submodels")) {
+			if (elements.length == 3) {
+				index.remove(elements[2]);
+			} else {
+				index.reindex(elements[2]);
+			}
+		}
+	}
+}
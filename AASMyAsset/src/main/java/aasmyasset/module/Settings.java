@@ -41,6 +41,129 @@ public final class Settings extends AasProperties {
 	 */ 
 	@LoadableProperty
 	public final UriProperty SUBMODEL_BASIC_IRI = new UriProperty("submodel.Basic.uri");
+	
+	/**
+	 * The keystore file holding the application certificate of the OPC UA clients. 
+	 * 
+	 * <p>
+	 * The certificate is created on the first start and reused afterwards. Delete the file to get a new one. If this is 
+	 * empty, the keystore is <code>opcua-client.p12</code> in {@link aasmyasset.connection.ClientCertificateStore#DEFAULT_DIRECTORY}. 
+	 */
+	@LoadableProperty
+	public final StringProperty OPCUA_CLIENT_KEYSTORE = new StringProperty("opcua.client.keystore");
+	
+	/**
+	 * The password protecting {@link #OPCUA_CLIENT_KEYSTORE}. 
+	 * 
+	 * <p>
+	 * If this is empty, a random password is created on the first start and stored next to the keystore, readable by 
+	 * its owner only. See {@link aasmyasset.connection.ClientCertificateStore#readOrCreatePassword(java.nio.file.Path)}. 
+	 */
+	@LoadableProperty
+	public final StringProperty OPCUA_CLIENT_KEYSTORE_PASSWORD = new StringProperty("opcua.client.keystore_password");
+	
+	/**
+	 * The number of asynchronously invoked operations which may run at the same time. See {@link AsyncOperationInvoker}.
+	 */
+	@LoadableProperty
+	public final IntegerProperty OPERATIONS_ASYNC_THREADS = new IntegerProperty("operations.async.threads");
+	
+	/**
+	 * The maximum number of asynchronous invocations which are running, waiting or whose results are retained.
+	 */
+	@LoadableProperty
+	public final IntegerProperty OPERATIONS_ASYNC_MAX_INVOCATIONS = new IntegerProperty("operations.async.max_invocations");
+	
+	/**
+	 * How long, in seconds, the result of an asynchronous invocation is kept after the operation finished.
+	 */
+	@LoadableProperty
+	public final IntegerProperty OPERATIONS_ASYNC_RETENTION = new IntegerProperty("operations.async.retention_seconds");
+	
+	/**
+	 * The comma-separated URLs which the callback URLs of asynchronous invocations must start with, e.g. 
+	 * <code>http://client:8080/results/</code>. The results are pushed by this server, so only list clients which 
+	 * may receive requests from it. If this is empty, callback URLs are rejected. 
+	 */
+	@LoadableProperty
+	public final StringProperty OPERATIONS_ASYNC_CALLBACK_PREFIXES = new StringProperty("operations.async.callback_prefixes");
+	
+	/**
+	 * The number of operations of parallel batch invocations which may run at the same time.
+	 */
+	@LoadableProperty
+	public final IntegerProperty OPERATIONS_BATCH_THREADS = new IntegerProperty("operations.batch.threads");
+	
+	/**
+	 * The maximum number of invocations in one batch.
+	 */
+	@LoadableProperty
+	public final IntegerProperty OPERATIONS_BATCH_MAX_SIZE = new IntegerProperty("operations.batch.max_size");
+	
+	/**
+	 * The maximum number of worker threads handling requests. Ignored if {@link #SERVER_THREAD_MODE} is <code>virtual</code>.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_MAX_THREADS = new IntegerProperty("server.max_threads");
+	
+	/**
+	 * The number of worker threads kept alive even if there are no requests. Ignored if {@link #SERVER_THREAD_MODE} is 
+	 * <code>virtual</code>.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_MIN_SPARE_THREADS = new IntegerProperty("server.min_spare_threads");
+	
+	/**
+	 * The number of incoming connections queued by the operating system while the server has reached 
+	 * {@link #SERVER_MAX_CONNECTIONS}. Further connections are refused.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_ACCEPT_COUNT = new IntegerProperty("server.accept_count");
+	
+	/**
+	 * The maximum number of connections the server keeps open at the same time.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_MAX_CONNECTIONS = new IntegerProperty("server.max_connections");
+	
+	/**
+	 * How long, in milliseconds, an idle keep-alive connection is kept open waiting for the next request.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_KEEP_ALIVE_TIMEOUT = new IntegerProperty("server.keep_alive_timeout_ms");
+	
+	/**
+	 * The maximum number of requests served on one keep-alive connection before it is closed. <code>-1</code> for no limit.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_MAX_KEEP_ALIVE_REQUESTS = new IntegerProperty("server.max_keep_alive_requests");
+	
+	/**
+	 * The threads handling requests: <code>platform</code> for a pool of {@link #SERVER_MAX_THREADS} threads, or 
+	 * <code>virtual</code> for one virtual thread per request. Virtual threads need Java 21 or newer; on older JVMs, 
+	 * the server falls back to platform threads.
+	 */
+	@LoadableProperty
+	public final StringProperty SERVER_THREAD_MODE = new StringProperty("server.thread_mode");
+	
+	/**
+	 * Whether JSON and text responses are compressed with gzip for clients which accept it.
+	 */
+	@LoadableProperty
+	public final BooleanProperty SERVER_COMPRESSION = new BooleanProperty("server.compression");
+	
+	/**
+	 * The minimum size, in bytes, of a response to be compressed. Smaller responses are sent as they are.
+	 */
+	@LoadableProperty
+	public final IntegerProperty SERVER_COMPRESSION_MIN_SIZE = new IntegerProperty("server.compression_min_size");
+	
+	/**
+	 * Whether clients may upgrade their connections to HTTP/2 without TLS (h2c), so that many requests can be 
+	 * multiplexed over one connection. 
+	 */
+	@LoadableProperty
+	public final BooleanProperty SERVER_HTTP2 = new BooleanProperty("server.http2");
 
 
 	/**
@@ -54,7 +177,7 @@ public final class Settings extends AasProperties {
 	 * @throws IOException if the resource file with the default values can't be loaded.
 	 * 
 	 */
-	protected Settings() throws IOException {
+	public Settings() throws IOException {
 		super();
 	}
 	
@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.eclipse.basyx.vab.modelprovider.VABPathTools;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+import org.eclipse.basyx.vab.modelprovider.lambda.VABLambdaHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP interface which answers <code>GET /aas/submodels/&lt;idShort&gt;/submodel</code>
+ * from a pre-serialized snapshot.
+ *
+ * <p>
+ * The snapshot of a submodel is created on the first GET. It holds the JSON of
+ * the submodel as ready-made bytes, except for the values of dynamic elements,
+ * i.e. elements whose value is a getter lambda (see
+ * {@link org.eclipse.basyx.vab.modelprovider.lambda.VABLambdaProviderHelper}).
+ * For every GET, only these values are read and serialized and spliced in
+ * between the static bytes.
+ *
+ * <p>
+ * The snapshot of a submodel is dropped whenever it is changed through this
+ * interface, i.e. by a PUT, POST, PATCH or DELETE below
+ * <code>/aas/submodels/&lt;idShort&gt;</code>. Invoking operations, one by one
+ * or in a batch, doesn't change the structure and keeps the snapshot. Code
+ * which changes the structure of a submodel directly in Java must call
+ * {@link #invalidate(String)}. If a submodel is replaced or deleted as a whole,
+ * its snapshot isn't used anymore.
+ *
+ * <p>
+ * All other requests, including GETs which can't be served from a snapshot,
+ * are handled by {@link StreamingHTTPInterface}.
+ */
+public class SnapshotHTTPInterface extends StreamingHTTPInterface {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger logger = LoggerFactory.getLogger(SnapshotHTTPInterface.class);
+
+	private static final String SUBMODELS_PREFIX = "/aas/submodels/";
+	private static final String SUBMODEL_SUFFIX = "/submodel";
+	private static final String INVOKE_PREFIX = "invoke";
+
+	private final transient GSONTools serializer = new GSONTools(new DefaultTypeFactory());
+
+	/**
+	 * The registered submodels, keyed by their idShort.
+	 */
+	private final transient Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new interface without any registered submodels.
+	 *
+	 * @param provider	The provider handling all requests which aren't served
+	 * 					from a snapshot.
+	 */
+	public SnapshotHTTPInterface(IModelProvider provider) {
+		super(provider);
+	}
+
+	/**
+	 * Registers a submodel whose GETs are served from a snapshot. The
+	 * submodel must be the one the provider serves under its idShort.
+	 *
+	 * @param submodel	The submodel.
+	 */
+	public void register(Submodel submodel) {
+		entries.put(submodel.getIdShort(), new Entry(submodel));
+	}
+
+	/**
+	 * Drops the snapshot of a submodel after its structure was changed. The
+	 * next GET creates a new one.
+	 *
+	 * @param idShort	The idShort of the submodel.
+	 */
+	public void invalidate(String idShort) {
+		Entry entry = entries.get(idShort);
+		if (entry != null) {
+			entry.invalidate();
+		}
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		String idShort = req.getQueryString() == null ? submodelOf(req.getPathInfo()) : null;
+		Entry entry = idShort == null ? null : entries.get(idShort);
+		byte[] body = entry == null ? null : entry.render();
+		if (body == null) {
+			super.doGet(req, resp);
+			return;
+		}
+
+		resp.setContentType("application/json");
+		resp.setCharacterEncoding("UTF-8");
+		resp.setStatus(200);
+		resp.setContentLength(body.length);
+		resp.getOutputStream().write(body);
+	}
+
+	@Override
+	protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		try {
+			super.doPut(req, resp);
+		} finally {
+			changed(req.getPathInfo());
+		}
+	}
+
+	@Override
+	protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		try {
+			super.doPost(req, resp);
+		} finally {
+			changed(req.getPathInfo());
+		}
+	}
+
+	@Override
+	protected void doPatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		try {
+			super.doPatch(req, resp);
+		} finally {
+			changed(req.getPathInfo());
+		}
+	}
+
+	@Override
+	protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		try {
+			super.doDelete(req, resp);
+		} finally {
+			changed(req.getPathInfo());
+		}
+	}
+
+	/**
+	 * Drops the snapshots affected by a request which may have changed the
+	 * model.
+	 */
+	private void changed(String path) {
+		if (path == null || isInvocation(path)) {
+			return;
+		}
+		if (!path.startsWith(SUBMODELS_PREFIX)) {
+			// The AAS itself, which may have replaced or removed submodels.
+			if (path.equals("/aas") || path.equals("/aas/") || path.equals("/aas/submodels")
+					|| path.equals("/aas/submodels/")) {
+				entries.clear();
+			}
+			return;
+		}
+
+		String rest = path.substring(SUBMODELS_PREFIX.length());
+		int index = rest.indexOf('/');
+		String idShort = index < 0 ? rest : rest.substring(0, index);
+		if (index < 0 || index == rest.length() - 1) {
+			// The submodel was replaced or deleted as a whole.
+			entries.remove(idShort);
+		} else {
+			invalidate(idShort);
+		}
+	}
+
+	/**
+	 * Checks whether a path invokes operations, e.g. <code>.../invoke</code>
+	 * or <code>.../invokeBatch</code>, the same way BaSyx does.
+	 */
+	private static boolean isInvocation(String path) {
+		String[] elements = VABPathTools.splitPath(path);
+		return elements.length > 0 && elements[elements.length - 1].startsWith(INVOKE_PREFIX);
+	}
+
+	/**
+	 * Gets the idShort of the submodel requested by a path, or
+	 * <code>null</code> if it doesn't request a whole submodel.
+	 */
+	private static String submodelOf(String path) {
+		if (path == null) {
+			return null;
+		}
+		if (path.endsWith("/")) {
+			path = path.substring(0, path.length() - 1);
+		}
+		if (!path.startsWith(SUBMODELS_PREFIX) || !path.endsWith(SUBMODEL_SUFFIX)) {
+			return null;
+		}
+		String idShort = path.substring(SUBMODELS_PREFIX.length(), path.length() - SUBMODEL_SUFFIX.length());
+		return idShort.isEmpty() || idShort.indexOf('/') >= 0 ? null : idShort;
+	}
+
+	/**
+	 * A registered submodel and its current snapshot.
+	 */
+	private final class Entry {
+		final Submodel submodel;
+
+		/**
+		 * The current snapshot, or <code>null</code> if it has to be created.
+		 * Only written while holding the lock of this entry.
+		 */
+		volatile Snapshot snapshot;
+
+		Entry(Submodel submodel) {
+			this.submodel = submodel;
+		}
+
+		/**
+		 * Serializes the submodel, creating the snapshot if necessary.
+		 *
+		 * @return	The response body, or <code>null</code> if the submodel
+		 * 			can't be served from the snapshot right now.
+		 */
+		byte[] render() {
+			Snapshot current = snapshot;
+			if (current == null) {
+				synchronized (this) {
+					current = snapshot;
+					if (current == null) {
+						try {
+							current = Snapshot.create(submodel, serializer);
+						} catch (RuntimeException e) {
+							logger.warn("Could not create the snapshot of submodel {}.", submodel.getIdShort(), e);
+							return null;
+						}
+						snapshot = current;
+					}
+				}
+			}
+			return current.render(serializer);
+		}
+
+		synchronized void invalidate() {
+			snapshot = null;
+		}
+	}
+
+	/**
+	 * The serialized submodel, split at its dynamic values.
+	 */
+	private static final class Snapshot {
+
+		/**
+		 * The static parts of the JSON. There is one more segment than there
+		 * are getters: the value of getter <code>i</code> goes between segment
+		 * <code>i</code> and <code>i + 1</code>.
+		 */
+		final byte[][] segments;
+		final Supplier<?>[] getters;
+
+		/**
+		 * The size of a rendered response seen last, used to size the buffer
+		 * of the next one.
+		 */
+		volatile int lastSize;
+
+		private Snapshot(byte[][] segments, Supplier<?>[] getters) {
+			this.segments = segments;
+			this.getters = getters;
+			int size = 0;
+			for (byte[] segment : segments) {
+				size += segment.length;
+			}
+			this.lastSize = size;
+		}
+
+		/**
+		 * Serializes a submodel once, with a unique placeholder instead of the
+		 * value of each getter.
+		 */
+		static Snapshot create(Submodel submodel, GSONTools serializer) {
+			String prefix = "snapshot-" + UUID.randomUUID() + "-";
+			List<Supplier<?>> getters = new ArrayList<>();
+			@SuppressWarnings("unchecked")
+			Map<String, Object> template = (Map<String, Object>) copy(submodel, prefix, getters);
+
+			// Let BaSyx convert the submodel as it does for a GET, so that the JSON is the same.
+			Object value = new SubmodelProvider(Submodel.createAsFacade(template)).getValue(SUBMODEL_SUFFIX);
+			String json = serializer.serialize(value);
+
+			// BaSyx may reorder elements, so take the getters in the order their placeholders appear.
+			List<byte[]> segments = new ArrayList<>();
+			List<Supplier<?>> order = new ArrayList<>();
+			String marker = '"' + prefix;
+			int start = 0;
+			int index;
+			while ((index = json.indexOf(marker, start)) >= 0) {
+				int end = json.indexOf('"', index + marker.length());
+				segments.add(json.substring(start, index).getBytes(StandardCharsets.UTF_8));
+				order.add(getters.get(Integer.parseInt(json.substring(index + marker.length(), end))));
+				start = end + 1;
+			}
+			segments.add(json.substring(start).getBytes(StandardCharsets.UTF_8));
+
+			return new Snapshot(segments.toArray(new byte[0][]), order.toArray(new Supplier<?>[0]));
+		}
+
+		/**
+		 * Reads the current dynamic values and splices them into the static
+		 * parts.
+		 *
+		 * @return	The response body, or <code>null</code> if a value can't be
+		 * 			spliced in, e.g. because it is a structure of its own.
+		 */
+		byte[] render(GSONTools serializer) {
+			if (getters.length == 0) {
+				return segments[0];
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(lastSize + 64);
+			try {
+				for (int i = 0; i < getters.length; i++) {
+					out.write(segments[i]);
+					Object value = getters[i].get();
+					if (value instanceof Map || value instanceof Collection) {
+						return null;
+					}
+					write(out, serializer.serialize(value));
+				}
+				out.write(segments[getters.length]);
+			} catch (RuntimeException e) {
+				// Let the regular GET report the failure.
+				return null;
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			lastSize = out.size();
+			return out.toByteArray();
+		}
+
+		private static void write(OutputStream out, String json) throws IOException {
+			out.write(json.getBytes(StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * Copies the maps and collections of a model, replacing every getter
+		 * lambda by a placeholder and collecting the getters in order.
+		 */
+		private static Object copy(Object model, String prefix, List<Supplier<?>> getters) {
+			if (model instanceof Map) {
+				Map<?, ?> map = (Map<?, ?>) model;
+				Object getter = map.get(VABLambdaHandler.VALUE_GET_SUFFIX);
+				if (getter instanceof Supplier) {
+					getters.add((Supplier<?>) getter);
+					return prefix + (getters.size() - 1);
+				}
+				Map<Object, Object> copy = new LinkedHashMap<>();
+				map.forEach((key, value) -> copy.put(key, copy(value, prefix, getters)));
+				return copy;
+			}
+			if (model instanceof Collection) {
+				Collection<Object> copy = model instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+				for (Object value : (Collection<?>) model) {
+					copy.add(copy(value, prefix, getters));
+				}
+				return copy;
+			}
+			return model;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.basyx.vab.coder.json.metaprotocol.Result;
+import org.eclipse.basyx.vab.coder.json.provider.JSONProvider;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+import org.eclipse.basyx.vab.protocol.http.server.VABHTTPInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import aasmyasset.metrics.HttpRequestMetrics;
+import aasmyasset.metrics.MetricsRegistry;
+
+/**
+ * HTTP interface which streams the JSON of GET responses to the client.
+ *
+ * <p>
+ * {@link VABHTTPInterface} serializes the requested object to a JSON tree, then
+ * to a string and then to bytes before it writes anything. For a large
+ * submodel, that is three copies of the whole response per request. This
+ * interface writes the JSON with a {@link StreamingJsonSerializer} while it
+ * walks the object instead. The responses are the same.
+ *
+ * <p>
+ * The JSON is written by the {@link JSONProvider} which
+ * {@link VABHTTPInterface#doGet(HttpServletRequest, HttpServletResponse)}
+ * calls, so that paths, parameters and error responses stay the ones of
+ * {@link VABHTTPInterface}.
+ *
+ * <p>
+ * All other requests are handled by {@link VABHTTPInterface} unchanged. Every
+ * request is counted in the {@link HttpRequestMetrics} of the default
+ * {@link MetricsRegistry}.
+ */
+public class StreamingHTTPInterface extends VABHTTPInterface<IModelProvider> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger logger = LoggerFactory.getLogger(StreamingHTTPInterface.class);
+
+	private final transient HttpRequestMetrics requestMetrics = new HttpRequestMetrics(MetricsRegistry.getDefault());
+
+	/**
+	 * Creates a new interface.
+	 *
+	 * @param provider	The provider handling the requests.
+	 */
+	public StreamingHTTPInterface(IModelProvider provider) {
+		super(provider);
+		providerBackend = new StreamingJSONProvider(provider);
+	}
+
+	@Override
+	public void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		long start = System.nanoTime();
+		// Exceptions escaping the servlet are answered with 500 by the container.
+		int status = 500;
+		try {
+			super.service(req, resp);
+			status = resp.getStatus();
+		} finally {
+			requestMetrics.record(req.getMethod(), status, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * JSON provider which streams the values it gets. Everything else is left
+	 * to {@link JSONProvider}.
+	 */
+	private static final class StreamingJSONProvider extends JSONProvider<IModelProvider> {
+
+		private final StreamingJsonSerializer streamingSerializer = new StreamingJsonSerializer();
+
+		StreamingJSONProvider(IModelProvider provider) {
+			super(provider);
+		}
+
+		@Override
+		public void processBaSysGet(String path, OutputStream outputStream) throws ProviderException {
+			Object value;
+			try {
+				value = providerBackend.getValue(path);
+			} catch (Exception e) {
+				sendException(outputStream, e);
+				return;
+			}
+
+			try {
+				streamingSerializer.write(value, outputStream);
+			} catch (IOException e) {
+				throw new ProviderException("Failed to write response", e);
+			}
+		}
+
+		/**
+		 * Sends the same error response as {@link JSONProvider}, whose method
+		 * is private.
+		 */
+		private void sendException(OutputStream outputStream, Exception e) throws ProviderException {
+			try {
+				outputStream.write(serializer.serialize(new Result(e)).getBytes(StandardCharsets.UTF_8));
+			} catch (IOException ioe) {
+				throw new ProviderException("Failed to send Exception '" + e.getMessage() + "' to client", ioe);
+			}
+			if (e instanceof ProviderException) {
+				throw (ProviderException) e;
+			}
+			logger.error("Unknown Exception in JSONProvider", e);
+			throw new ProviderException(e);
+		}
+	}
+}
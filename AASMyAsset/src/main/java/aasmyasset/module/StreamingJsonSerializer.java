@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributor:
+ * 		DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ ******************************************************************************/
+package aasmyasset.module;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Serializes model objects to JSON while walking them, writing straight to an
+ * output stream.
+ *
+ * <p>
+ * The JSON is the same as the one created by
+ * {@link GSONTools#serialize(Object)} with BaSyx' default settings, i.e. map
+ * entries whose value is <code>null</code> are left out, and numbers,
+ * booleans, characters and strings are written as JSON primitives. Unlike
+ * {@link GSONTools}, no JSON tree and no string of the whole document are
+ * built in memory; only a small write buffer is needed, however large the
+ * object is.
+ *
+ * <p>
+ * Instances are thread-safe and can be shared.
+ */
+public final class StreamingJsonSerializer {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Serializes the rare functions contained in a model, e.g. operation
+	 * invokables, which are converted the way BaSyx does.
+	 */
+	private final GSONTools serializer = new GSONTools(new DefaultTypeFactory());
+
+	/**
+	 * Writes an object as UTF-8 encoded JSON. The stream is flushed, but not
+	 * closed.
+	 *
+	 * @param value			The object, made up of maps, collections and
+	 * 						primitives.
+	 * @param out			The stream to write to.
+	 * @throws IOException	If writing to the stream fails.
+	 */
+	public void write(Object value, OutputStream out) throws IOException {
+		JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+				BUFFER_SIZE));
+		// Same as Gson.toJson(JsonElement), which GSONTools uses.
+		writer.setLenient(true);
+		writer.setHtmlSafe(true);
+		writer.setSerializeNulls(false);
+
+		write(writer, value);
+		writer.flush();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void write(JsonWriter writer, Object value) throws IOException {
+		if (value == null) {
+			// Left out entirely when it is the value of a map entry.
+			writer.nullValue();
+		} else if (value instanceof Number) {
+			writer.value((Number) value);
+		} else if (value instanceof Boolean) {
+			writer.value((Boolean) value);
+		} else if (value instanceof String) {
+			writer.value((String) value);
+		} else if (value instanceof Character) {
+			// GSONTools treats it as a wrapper type but fails to cast it to a
+			// string. Written like Gson writes characters.
+			writer.value(value.toString());
+		} else if (value instanceof Map) {
+			writer.beginObject();
+			for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+				writer.name(entry.getKey());
+				write(writer, entry.getValue());
+			}
+			writer.endObject();
+		} else if (value instanceof Collection) {
+			writer.beginArray();
+			for (Object element : (Collection<Object>) value) {
+				write(writer, element);
+			}
+			writer.endArray();
+		} else if (isFunction(value)) {
+			writer.jsonValue(serializer.serialize(value));
+		} else {
+			throw new RuntimeException("Unknown element!");
+		}
+	}
+
+	private static boolean isFunction(Object value) {
+		return value instanceof Supplier || value instanceof Function || value instanceof Consumer
+				|| value instanceof BiConsumer || value instanceof Runnable;
+	}
+}
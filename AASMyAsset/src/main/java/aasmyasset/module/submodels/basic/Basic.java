@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import java.math.BigInteger; 
 
@@ -29,8 +30,11 @@ import javax.xml.datatype.Duration;
 import javax.xml.namespace.QName;
 
 import aasmyasset.connection.ConnectedDevices;
+import aasmyasset.metrics.LatencyHistogram;
+import aasmyasset.metrics.MetricsRegistry;
 //import aasmyasset.connection.DataCrawler;
 import aasmyasset.module.AASServer;
+import aasmyasset.module.ArgumentDecoder;
 import aasmyasset.module.ConceptDescriptions;
 import aasmyasset.connection.OpcUaVariable;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.Operation;
@@ -83,29 +87,42 @@ public class Basic extends Submodel {
 
 	 /**
      * The following contains the declaration of the operation variables as field variables so that they can be accessed in their true sense.
+     * They only describe the operations' input and output variables and are never written after construction. The arguments of an 
+     * invocation are decoded to local variables by the {@link ArgumentDecoder} of their input variable, and BaSyx copies the output 
+     * variables for every invocation to return the invokable's result in, so that concurrent invocations don't share any state.
      */
-	protected static Property Basic_IntegerA_Addition_Input = new Property("IntegerA", ValueType.Integer);
-	protected static Property Basic_IntegerB_Addition_Input = new Property("IntegerB", ValueType.Integer);
+	private final Property Basic_greeting_SayHello_Output = new Property("greeting", ValueType.String);
 		
 
-	protected static Property Basic_name_Print_Input = new Property("name", ValueType.String);
+	private final Property Basic_IntegerA_Addition_Input = new Property("IntegerA", ValueType.Integer);
+	private final Property Basic_IntegerB_Addition_Input = new Property("IntegerB", ValueType.Integer);
+	private final ArgumentDecoder Basic_IntegerA_Addition_Decoder = ArgumentDecoder.of(Basic_IntegerA_Addition_Input);
+	private final ArgumentDecoder Basic_IntegerB_Addition_Decoder = ArgumentDecoder.of(Basic_IntegerB_Addition_Input);
+	private final Property Basic_Sum_Addition_Output = new Property("Sum", ValueType.Integer);
 		
 
-	protected static Property Basic_FloatA_Subtraction_Input = new Property("FloatA", ValueType.Float);
-	protected static Property Basic_FloatB_Subtraction_Input = new Property("FloatB", ValueType.Float);
+	private final Property Basic_name_Print_Input = new Property("name", ValueType.String);
+	private final ArgumentDecoder Basic_name_Print_Decoder = ArgumentDecoder.of(Basic_name_Print_Input);
+	private final Property Basic_message_Print_Output = new Property("message", ValueType.String);
 		
 
+	private final Property Basic_FloatA_Subtraction_Input = new Property("FloatA", ValueType.Float);
+	private final Property Basic_FloatB_Subtraction_Input = new Property("FloatB", ValueType.Float);
+	private final ArgumentDecoder Basic_FloatA_Subtraction_Decoder = ArgumentDecoder.of(Basic_FloatA_Subtraction_Input);
+	private final ArgumentDecoder Basic_FloatB_Subtraction_Decoder = ArgumentDecoder.of(Basic_FloatB_Subtraction_Input);
+	private final Property Basic_Difference_Subtraction_Output = new Property("Difference", ValueType.Float);
+		
 
 
-	public Basic() {
 
-		try {
-			connectedDevices = new ConnectedDevices();
-		} 
-		catch (Exception e) {
+	/**
+	 * Creates the submodel. 
+	 * 
+	 * @param connectedDevices	The connectors shared by all submodels of this AAS. 
+	 */
+	public Basic(ConnectedDevices connectedDevices) {
 
-			e.printStackTrace();
-		}
+		this.connectedDevices = connectedDevices;
 		
 		dew = new DynamicElementsWorkspace(connectedDevices);
 		conceptDescriptions = new ConceptDescriptions();
@@ -119,13 +136,12 @@ public class Basic extends Submodel {
  
 		Function<Object[], Object> callBasic_SayHello = (arguments) -> {
 
-			dew.Basic_SayHello();
-			return null;
+			return dew.Basic_SayHello();
 
 		};
 		Operation Basic_SayHello= new Operation();
 		Basic_SayHello.setIdShort("SayHello");
-		Basic_SayHello.setInvokable(callBasic_SayHello);
+		Basic_SayHello.setInvokable(timed("SayHello", callBasic_SayHello));
 		Basic_SayHello.setKind(ModelingKind.INSTANCE);
 		List<IKey> Basic_sayhelloKeys= new ArrayList<IKey>();
 		Reference Basic_SayHelloRef = new Reference(Basic_sayhelloKeys);
@@ -133,21 +149,28 @@ public class Basic extends Submodel {
  
 		addSubmodelElement(Basic_SayHello);
 
+		Collection<OperationVariable> Basic_SayHelloOutputs = new ArrayList<OperationVariable>();
+		OperationVariable Basic_greetingSayHello = new OperationVariable();
+		Basic_greeting_SayHello_Output.setKind(ModelingKind.TEMPLATE);
+		Basic_greetingSayHello.setValue(Basic_greeting_SayHello_Output);
+		Basic_SayHelloOutputs.add(Basic_greetingSayHello);
+		Basic_SayHello.setOutputVariables(Basic_SayHelloOutputs); 
+
 
 
 
 
 		Function<Object[], Object> callBasic_Addition = (arguments) -> {
 
-			Basic_IntegerA_Addition_Input.setValue((arguments[0]));
-			Basic_IntegerB_Addition_Input.setValue((arguments[1]));
-			dew.Basic_Addition((BigInteger) Basic_IntegerA_Addition_Input.getValue(),(BigInteger) Basic_IntegerB_Addition_Input.getValue());
-			return null;
+			ArgumentDecoder.checkCount(arguments, 2);
+			long IntegerA = Basic_IntegerA_Addition_Decoder.asLong(arguments[0]);
+			long IntegerB = Basic_IntegerB_Addition_Decoder.asLong(arguments[1]);
+			return dew.Basic_Addition(IntegerA, IntegerB);
 
 		};
 		Operation Basic_Addition= new Operation();
 		Basic_Addition.setIdShort("Addition");
-		Basic_Addition.setInvokable(callBasic_Addition);
+		Basic_Addition.setInvokable(timed("Addition", callBasic_Addition));
 		Basic_Addition.setKind(ModelingKind.INSTANCE);
 		List<IKey> Basic_additionKeys= new ArrayList<IKey>();
 		Reference Basic_AdditionRef = new Reference(Basic_additionKeys);
@@ -167,19 +190,26 @@ public class Basic extends Submodel {
 		Basic_AdditionInputs.add(Basic_IntegerBAddition);
 		Basic_Addition.setInputVariables(Basic_AdditionInputs); 
 
+		Collection<OperationVariable> Basic_AdditionOutputs = new ArrayList<OperationVariable>();
+		OperationVariable Basic_SumAddition = new OperationVariable();
+		Basic_Sum_Addition_Output.setKind(ModelingKind.TEMPLATE);
+		Basic_SumAddition.setValue(Basic_Sum_Addition_Output);
+		Basic_AdditionOutputs.add(Basic_SumAddition);
+		Basic_Addition.setOutputVariables(Basic_AdditionOutputs); 
+
 
 
 
 		Function<Object[], Object> callBasic_Print = (arguments) -> {
 
-			Basic_name_Print_Input.setValue((arguments[0]));
-			dew.Basic_Print((String) Basic_name_Print_Input.getValue());
-			return null;
+			ArgumentDecoder.checkCount(arguments, 1);
+			String name = (String) Basic_name_Print_Decoder.asObject(arguments[0]);
+			return dew.Basic_Print(name);
 
 		};
 		Operation Basic_Print= new Operation();
 		Basic_Print.setIdShort("Print");
-		Basic_Print.setInvokable(callBasic_Print);
+		Basic_Print.setInvokable(timed("Print", callBasic_Print));
 		Basic_Print.setKind(ModelingKind.INSTANCE);
 		List<IKey> Basic_printKeys= new ArrayList<IKey>();
 		Reference Basic_PrintRef = new Reference(Basic_printKeys);
@@ -194,20 +224,27 @@ public class Basic extends Submodel {
 		Basic_PrintInputs.add(Basic_namePrint);
 		Basic_Print.setInputVariables(Basic_PrintInputs); 
 
+		Collection<OperationVariable> Basic_PrintOutputs = new ArrayList<OperationVariable>();
+		OperationVariable Basic_messagePrint = new OperationVariable();
+		Basic_message_Print_Output.setKind(ModelingKind.TEMPLATE);
+		Basic_messagePrint.setValue(Basic_message_Print_Output);
+		Basic_PrintOutputs.add(Basic_messagePrint);
+		Basic_Print.setOutputVariables(Basic_PrintOutputs); 
+
 
 
 
 		Function<Object[], Object> callBasic_Subtraction = (arguments) -> {
 
-			Basic_FloatA_Subtraction_Input.setValue((arguments[0]));
-			Basic_FloatB_Subtraction_Input.setValue((arguments[1]));
-			dew.Basic_Subtraction((Float) Basic_FloatA_Subtraction_Input.getValue(),(Float) Basic_FloatB_Subtraction_Input.getValue());
-			return null;
+			ArgumentDecoder.checkCount(arguments, 2);
+			float FloatA = Basic_FloatA_Subtraction_Decoder.asFloat(arguments[0]);
+			float FloatB = Basic_FloatB_Subtraction_Decoder.asFloat(arguments[1]);
+			return dew.Basic_Subtraction(FloatA, FloatB);
 
 		};
 		Operation Basic_Subtraction= new Operation();
 		Basic_Subtraction.setIdShort("Subtraction");
-		Basic_Subtraction.setInvokable(callBasic_Subtraction);
+		Basic_Subtraction.setInvokable(timed("Subtraction", callBasic_Subtraction));
 		Basic_Subtraction.setKind(ModelingKind.INSTANCE);
 		List<IKey> Basic_subtractionKeys= new ArrayList<IKey>();
 		Reference Basic_SubtractionRef = new Reference(Basic_subtractionKeys);
@@ -227,10 +264,44 @@ public class Basic extends Submodel {
 		Basic_SubtractionInputs.add(Basic_FloatBSubtraction);
 		Basic_Subtraction.setInputVariables(Basic_SubtractionInputs); 
 
+		Collection<OperationVariable> Basic_SubtractionOutputs = new ArrayList<OperationVariable>();
+		OperationVariable Basic_DifferenceSubtraction = new OperationVariable();
+		Basic_Difference_Subtraction_Output.setKind(ModelingKind.TEMPLATE);
+		Basic_DifferenceSubtraction.setValue(Basic_Difference_Subtraction_Output);
+		Basic_SubtractionOutputs.add(Basic_DifferenceSubtraction);
+		Basic_Subtraction.setOutputVariables(Basic_SubtractionOutputs); 
+
 
 
 
 	}
 	
+	/**
+	 * Records the duration and failures of every invocation of an operation in the default {@link MetricsRegistry}. 
+	 * 
+	 * @param operation			The idShort of the operation. 
+	 * @param invokable			The invokable of the operation. 
+	 * @return					The invokable to set on the operation. 
+	 */
+	private static Function<Object[], Object> timed(String operation, Function<Object[], Object> invokable) {
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		LatencyHistogram duration = metrics.histogram("aas_operation_duration_seconds", "Duration of operation invocations.", 
+				"submodel", "Basic", "operation", operation);
+		LongAdder failures = metrics.counter("aas_operation_failures_total", "Operation invocations which threw an exception.", 
+				"submodel", "Basic", "operation", operation);
+		
+		return (arguments) -> {
+			long start = System.nanoTime();
+			try {
+				return invokable.apply(arguments);
+			} catch (RuntimeException e) {
+				failures.increment();
+				throw e;
+			} finally {
+				duration.record(System.nanoTime() - start);
+			}
+		};
+	}
+	
 }
 
@@ -29,8 +29,24 @@ import org.eclipse.basyx.submodel.metamodel.api.reference.enums.KeyType;
 import org.eclipse.basyx.submodel.metamodel.map.reference.Key;
 import org.eclipse.basyx.submodel.metamodel.map.reference.Reference;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Contains the user-provided code of the operations of {@link Basic}. 
+ * 
+ * <p>
+ * The operations may run on the request threads of the server, or on its worker threads for asynchronous and 
+ * parallel batch invocations (<code>operation-*</code> and <code>batch-*</code>), and several invocations may run at 
+ * the same time. Log with {@link #logger} instead of writing to the console. 
+ */
 public class DynamicElementsWorkspace {
+	/**
+	 * The output of the operations. It is written asynchronously if configured so in 
+	 * <code>logback.xml</code>, which is the default. 
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(DynamicElementsWorkspace.class);
+
 	private ConnectedDevices connectedDevices;
 
 	public DynamicElementsWorkspace(ConnectedDevices connectedDevices) {
@@ -43,18 +59,15 @@ public class DynamicElementsWorkspace {
 		 * 
 		 * Papyrus4Manufacturing handles InOutput parameters as Input Parameters.  
 		 * 
-		 * Please under no circumstances change/modify this method's Signature 
-		 * and the return statement. 
-		 * 
-		 * After this methods behaviour has been defined, please use the following 
-		 * code line (as an example) to assign the output variable of this Operation its value, 
-		 * if and only if an OutputVariable is defined for this Operation. 
+		 * Please under no circumstances change/modify this method's Signature. 
 		 * 
-		 * Submodel1.out1_operation2_Output.setValue(<<Value Instance>>);
+		 * The returned value is assigned to the output variable of this Operation, 
+		 * <code>greeting</code>, and sent back in the response of the invocation. 
 		 *  
 		 */
-	public void Basic_SayHello() {
-		System.out.println("Hello");
+	public String Basic_SayHello() {
+		logger.info("Hello");
+		return "Hello";
 	}
 
 	/**
@@ -63,18 +76,18 @@ public class DynamicElementsWorkspace {
 		 * 
 		 * Papyrus4Manufacturing handles InOutput parameters as Input Parameters.  
 		 * 
-		 * Please under no circumstances change/modify this method's Signature 
-		 * and the return statement. 
+		 * Please under no circumstances change/modify this method's Signature. 
 		 * 
-		 * After this methods behaviour has been defined, please use the following 
-		 * code line (as an example) to assign the output variable of this Operation its value, 
-		 * if and only if an OutputVariable is defined for this Operation. 
+		 * The returned value is assigned to the output variable of this Operation, 
+		 * <code>Sum</code>, and sent back in the response of the invocation. 
 		 * 
-		 * Submodel1.out1_operation2_Output.setValue(<<Value Instance>>);
+		 * @throws ArithmeticException If the sum overflows a <code>long</code>. 
 		 *  
 		 */
-	public void Basic_Addition(BigInteger IntegerA, BigInteger IntegerB) {
-		System.out.println("Addition : " + (IntegerA.intValue() + IntegerB.intValue()));
+	public long Basic_Addition(long IntegerA, long IntegerB) {
+		long sum = Math.addExact(IntegerA, IntegerB);
+		logger.info("Addition : {}", sum);
+		return sum;
 	}
 
 	/**
@@ -83,18 +96,15 @@ public class DynamicElementsWorkspace {
 		 * 
 		 * Papyrus4Manufacturing handles InOutput parameters as Input Parameters.  
 		 * 
-		 * Please under no circumstances change/modify this method's Signature 
-		 * and the return statement. 
-		 * 
-		 * After this methods behaviour has been defined, please use the following 
-		 * code line (as an example) to assign the output variable of this Operation its value, 
-		 * if and only if an OutputVariable is defined for this Operation. 
+		 * Please under no circumstances change/modify this method's Signature. 
 		 * 
-		 * Submodel1.out1_operation2_Output.setValue(<<Value Instance>>);
+		 * The returned value is assigned to the output variable of this Operation, 
+		 * <code>message</code>, and sent back in the response of the invocation. 
 		 *  
 		 */
-	public void Basic_Print(String name) {
-		System.out.println("Print : " + name);
+	public String Basic_Print(String name) {
+		logger.info("Print : {}", name);
+		return name;
 	}
 
 	/**
@@ -103,18 +113,21 @@ public class DynamicElementsWorkspace {
 		 * 
 		 * Papyrus4Manufacturing handles InOutput parameters as Input Parameters.  
 		 * 
-		 * Please under no circumstances change/modify this method's Signature 
-		 * and the return statement. 
+		 * Please under no circumstances change/modify this method's Signature. 
 		 * 
-		 * After this methods behaviour has been defined, please use the following 
-		 * code line (as an example) to assign the output variable of this Operation its value, 
-		 * if and only if an OutputVariable is defined for this Operation. 
+		 * The returned value is assigned to the output variable of this Operation, 
+		 * <code>Difference</code>, and sent back in the response of the invocation. 
 		 * 
-		 * Submodel1.out1_operation2_Output.setValue(<<Value Instance>>);
+		 * @throws ArithmeticException If the difference of finite arguments overflows a <code>float</code>. 
 		 *  
 		 */
-	public void Basic_Subtraction(Float FloatA, Float FloatB) {
-		System.out.println("Subtraction : " + (FloatA - FloatB));
+	public float Basic_Subtraction(float FloatA, float FloatB) {
+		float difference = FloatA - FloatB;
+		if (Float.isInfinite(difference) && !Float.isInfinite(FloatA) && !Float.isInfinite(FloatB)) {
+			throw new ArithmeticException("float overflow");
+		}
+		logger.info("Subtraction : {}", difference);
+		return difference;
 	}
 
 }
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.junit.Test;
+
+import aasmyasset.connection.EndpointGuard.State;
+
+/**
+ * Checks the circuit breaker and the bulkhead of {@link EndpointGuard}.
+ */
+public class EndpointGuardTest {
+
+	private static final String ENDPOINT = "opc.tcp://device:4840";
+
+	@Test
+	public void opensAfterConsecutiveFailures() {
+		EndpointGuard guard = new EndpointGuard(ENDPOINT, 3, Duration.ofMinutes(1), 4);
+		List<String> transitions = new ArrayList<>();
+		guard.addStateListener((endpoint, from, to) -> transitions.add(endpoint + ": " + from + " -> " + to));
+
+		fail(guard);
+		fail(guard);
+		guard.call(() -> "answer");
+		fail(guard);
+		fail(guard);
+		assertEquals("A success resets the failures", State.CLOSED, guard.getState());
+
+		fail(guard);
+		assertEquals(State.OPEN, guard.getState());
+		assertEquals(Arrays.asList(ENDPOINT + ": CLOSED -> OPEN"), transitions);
+		assertEquals(5, guard.getFailureCount());
+
+		AtomicBoolean called = new AtomicBoolean();
+		assertThrows(EndpointUnavailableException.class, () -> guard.call(() -> called.getAndSet(true)));
+		assertFalse("Rejected calls don't reach the endpoint", called.get());
+		assertEquals(1, guard.getCircuitRejectionCount());
+	}
+
+	@Test
+	public void wrongRequestsAreNoFailures() {
+		EndpointGuard guard = new EndpointGuard(ENDPOINT, 1, Duration.ofMinutes(1), 4);
+
+		for (int i = 0; i < 3; i++) {
+			assertThrows(ResourceNotFoundException.class, () -> guard.call(() -> {
+				throw new ResourceNotFoundException("No such node.");
+			}));
+		}
+		assertEquals(State.CLOSED, guard.getState());
+		assertEquals(0, guard.getFailureCount());
+	}
+
+	@Test
+	public void trialCallClosesCircuit() throws Exception {
+		EndpointGuard guard = new EndpointGuard(ENDPOINT, 1, Duration.ofMillis(20), 4);
+		fail(guard);
+		Thread.sleep(40);
+
+		CompletableFuture<String> trial = new CompletableFuture<>();
+		CompletableFuture<String> result = guard.callAsync(() -> trial);
+		assertEquals(State.HALF_OPEN, guard.getState());
+		assertRejected(guard.callAsync(() -> CompletableFuture.completedFuture("concurrent")));
+
+		trial.complete("answer");
+		assertEquals("answer", result.join());
+		assertEquals(State.CLOSED, guard.getState());
+	}
+
+	@Test
+	public void failedTrialCallOpensCircuitAgain() throws Exception {
+		EndpointGuard guard = new EndpointGuard(ENDPOINT, 3, Duration.ofMillis(20), 4);
+		fail(guard);
+		fail(guard);
+		fail(guard);
+		Thread.sleep(40);
+
+		fail(guard);
+		assertEquals("A single failed trial is enough", State.OPEN, guard.getState());
+		assertThrows(EndpointUnavailableException.class, () -> guard.call(() -> "answer"));
+	}
+
+	@Test
+	public void bulkheadLimitsCallsInFlight() {
+		EndpointGuard guard = new EndpointGuard(ENDPOINT, 1, Duration.ofMinutes(1), 2);
+		CompletableFuture<String> first = new CompletableFuture<>();
+		guard.callAsync(() -> first);
+		guard.callAsync(() -> new CompletableFuture<String>());
+		assertEquals(2, guard.getActiveCalls());
+
+		assertRejected(guard.callAsync(() -> CompletableFuture.completedFuture("third")));
+		assertEquals(1, guard.getBulkheadRejectionCount());
+		assertEquals("Rejections by the bulkhead don't open the circuit", State.CLOSED, guard.getState());
+
+		first.complete("answer");
+		assertEquals(1, guard.getActiveCalls());
+		assertEquals("fourth", guard.call(() -> "fourth"));
+	}
+
+	@Test
+	public void rejectsInvalidLimits() {
+		assertThrows(IllegalArgumentException.class, () -> new EndpointGuard(ENDPOINT, 0, Duration.ofMinutes(1), 1));
+		assertThrows(IllegalArgumentException.class, () -> new EndpointGuard(ENDPOINT, 1, Duration.ofMinutes(1), 0));
+	}
+
+	private static void fail(EndpointGuard guard) {
+		assertThrows(ProviderException.class, () -> guard.call(() -> {
+			throw new ProviderException("Timeout");
+		}));
+	}
+
+	private static void assertRejected(CompletableFuture<?> call) {
+		assertTrue("Rejected at once", call.isCompletedExceptionally());
+		CompletionException e = assertThrows(CompletionException.class, call::join);
+		assertTrue(e.getCause() instanceof EndpointUnavailableException);
+	}
+}
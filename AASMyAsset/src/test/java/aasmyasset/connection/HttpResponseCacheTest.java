@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.eclipse.basyx.vab.protocol.api.IBaSyxConnector;
+import org.junit.Test;
+
+/**
+ * Checks that {@link HTTPConnectorWrapper#readValue(String)} behaves the same with and without a
+ * {@link HttpResponseCache}, and that a read which overlaps a write doesn't cache the value from before the write.
+ */
+public class HttpResponseCacheTest {
+
+	private static final String PATH = "/resource";
+
+	@Test
+	public void storeAfterInvalidationIsDropped() {
+		HttpResponseCache cache = new HttpResponseCache(Duration.ofMinutes(1), 10);
+		long generation = cache.generation();
+		cache.invalidate(PATH);
+
+		assertEquals("Returned body", "old", cache.store(PATH, generation, "old", null).body);
+		assertEquals("Cached paths", 0, cache.size());
+
+		cache.store(PATH, cache.generation(), "new", null);
+		assertEquals("new", cache.lookup(PATH).body);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedPath() {
+		HttpResponseCache cache = new HttpResponseCache(Duration.ofMinutes(1), 2);
+		cache.store("/a", cache.generation(), "a", null);
+		cache.store("/b", cache.generation(), "b", null);
+		cache.lookup("/a");
+		cache.store("/c", cache.generation(), "c", null);
+
+		assertEquals("Cached paths", 2, cache.size());
+		assertEquals("Evictions", 1, cache.getEvictionCount());
+		assertEquals("a", cache.lookup("/a").body);
+		assertNull(cache.lookup("/b"));
+	}
+
+	@Test
+	public void cachedReadsMatchUncachedReads() {
+		FakeConnector connector = new FakeConnector();
+		connector.values.put(PATH, "\"value\"");
+		HTTPConnectorWrapper uncached = new HTTPConnectorWrapper(connector);
+		HTTPConnectorWrapper cached = new HTTPConnectorWrapper(connector);
+		cached.setReadCache(new HttpResponseCache(Duration.ofMinutes(1), 10));
+
+		assertEquals(uncached.readValue(PATH), cached.readValue(PATH));
+		assertEquals("From the cache", uncached.readValue(PATH), cached.readValue(PATH));
+		assertEquals("Reads through the connector", 3, connector.reads.get());
+
+		ResourceNotFoundException uncachedError = readMissing(uncached);
+		ResourceNotFoundException cachedError = readMissing(cached);
+		assertEquals(uncachedError.getMessage(), cachedError.getMessage());
+	}
+
+	@Test
+	public void readOverlappingWriteDoesNotCacheOldValue() throws Exception {
+		FakeConnector connector = new FakeConnector();
+		connector.values.put(PATH, "old");
+		HTTPConnectorWrapper client = new HTTPConnectorWrapper(connector);
+		client.setReadCache(new HttpResponseCache(Duration.ofMinutes(1), 10));
+
+		CountDownLatch readStarted = new CountDownLatch(1);
+		CountDownLatch releaseRead = new CountDownLatch(1);
+		connector.releaseRead = releaseRead;
+		connector.readStarted = readStarted;
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> read = executor.submit(() -> client.readValue(PATH));
+			readStarted.await(5, TimeUnit.SECONDS);
+			client.writeValue(PATH, "new", "PUT");
+			releaseRead.countDown();
+
+			assertEquals("Overlapping read", "old", read.get(5, TimeUnit.SECONDS));
+			assertEquals("Read after the write", "new", client.readValue(PATH));
+			assertEquals("Read from the cache", "new", client.readValue(PATH));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static ResourceNotFoundException readMissing(HTTPConnectorWrapper client) {
+		try {
+			client.readValue("/missing");
+		} catch (ResourceNotFoundException e) {
+			return e;
+		}
+		fail("Reading a missing resource must fail.");
+		return null;
+	}
+
+	/**
+	 * A connector which serves the values of a map. Its reads can be held, so that a write can overlap them.
+	 */
+	private static final class FakeConnector implements IBaSyxConnector {
+		final Map<String, String> values = new ConcurrentHashMap<>();
+		final AtomicInteger reads = new AtomicInteger();
+		volatile CountDownLatch readStarted;
+		volatile CountDownLatch releaseRead;
+
+		@Override
+		public String getValue(String path) {
+			reads.incrementAndGet();
+			String value = values.get(path);
+			CountDownLatch started = readStarted;
+			if (started != null) {
+				readStarted = null;
+				started.countDown();
+				awaitQuietly(releaseRead);
+			}
+			if (value == null) {
+				throw new ResourceNotFoundException("No resource at " + path);
+			}
+			return value;
+		}
+
+		@Override
+		public String setValue(String path, String newValue) {
+			values.put(path, newValue);
+			return "";
+		}
+
+		@Override
+		public String createValue(String path, String newEntity) {
+			return setValue(path, newEntity);
+		}
+
+		@Override
+		public String deleteValue(String path) {
+			values.remove(path);
+			return "";
+		}
+
+		@Override
+		public String deleteValue(String path, String obj) {
+			return deleteValue(path);
+		}
+
+		@Override
+		public String invokeOperation(String path, String jsonParameter) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String getEndpointRepresentation(String path) {
+			return "fake:" + path;
+		}
+
+		private static void awaitQuietly(CountDownLatch latch) {
+			try {
+				latch.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
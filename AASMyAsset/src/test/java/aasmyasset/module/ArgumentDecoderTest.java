@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.valuetype.ValueType;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.junit.Test;
+
+/**
+ * Checks that {@link ArgumentDecoder} accepts every representation of an argument in the range of its input
+ * variable, and rejects everything else with a {@link MalformedRequestException}.
+ */
+public class ArgumentDecoderTest {
+
+	@Test
+	public void decodesIntegersOfEveryRepresentation() {
+		ArgumentDecoder decoder = decoder(ValueType.Integer);
+
+		assertEquals(42L, decoder.asLong(42));
+		assertEquals(42L, decoder.asLong(42L));
+		assertEquals(42L, decoder.asLong(BigInteger.valueOf(42)));
+		assertEquals(42L, decoder.asLong(42.0));
+		assertEquals(42L, decoder.asLong(new BigDecimal("42.000")));
+		assertEquals(42L, decoder.asLong(" 42 "));
+		assertEquals(Long.MIN_VALUE, decoder.asLong(BigInteger.valueOf(Long.MIN_VALUE)));
+		assertEquals(Long.MAX_VALUE, decoder.asLong(BigInteger.valueOf(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void rejectsIntegersOutsideTheRangeOfTheType() {
+		ArgumentDecoder integer = decoder(ValueType.Integer);
+		assertRejected(() -> integer.asLong(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)));
+		assertRejected(() -> integer.asLong(0x1p63));
+		assertRejected(() -> integer.asLong(1.5));
+		assertRejected(() -> integer.asLong(new BigDecimal("1.5")));
+		assertRejected(() -> integer.asLong("one"));
+
+		ArgumentDecoder int8 = decoder(ValueType.Int8);
+		assertEquals(-128L, int8.asLong(-128));
+		assertEquals(127L, int8.asLong(127));
+		assertRejected(() -> int8.asLong(128));
+		assertRejected(() -> int8.asLong(-129));
+
+		ArgumentDecoder uint32 = decoder(ValueType.UInt32);
+		assertEquals(0xFFFFFFFFL, uint32.asLong(0xFFFFFFFFL));
+		assertRejected(() -> uint32.asLong(-1));
+		assertRejected(() -> uint32.asLong(0x100000000L));
+
+		ArgumentDecoder positive = decoder(ValueType.PositiveInteger);
+		assertRejected(() -> positive.asLong(0));
+
+		ArgumentDecoder negative = decoder(ValueType.NegativeInteger);
+		assertRejected(() -> negative.asLong(0));
+	}
+
+	@Test
+	public void rejectsMissingAndWrongArguments() {
+		ArgumentDecoder integer = decoder(ValueType.Integer);
+		assertRejected(() -> integer.asLong(null));
+		assertRejected(() -> integer.asLong(Boolean.TRUE));
+
+		ArgumentDecoder floating = decoder(ValueType.Float);
+		assertRejected(() -> floating.asFloat(null));
+		assertRejected(() -> floating.asFloat("1.0f?"));
+	}
+
+	@Test
+	public void decodesFloatingPointNumbers() {
+		ArgumentDecoder decoder = decoder(ValueType.Float);
+
+		assertEquals(1.5f, decoder.asFloat(1.5), 0f);
+		assertEquals(1.5f, decoder.asFloat("1.5"), 0f);
+		assertEquals(3f, decoder.asFloat(BigInteger.valueOf(3)), 0f);
+		assertEquals(Float.POSITIVE_INFINITY, decoder.asFloat("INF"), 0f);
+		assertEquals(Float.NEGATIVE_INFINITY, decoder.asFloat(Double.NEGATIVE_INFINITY), 0f);
+		assertTrue(Float.isNaN(decoder.asFloat("NaN")));
+	}
+
+	@Test
+	public void rejectsFloatingPointNumbersOutsideTheRangeOfTheType() {
+		ArgumentDecoder floating = decoder(ValueType.Float);
+		assertRejected(() -> floating.asFloat(Double.MAX_VALUE));
+		assertRejected(() -> floating.asFloat("1e39"));
+
+		ArgumentDecoder doubleDecoder = decoder(ValueType.Double);
+		assertEquals(Double.MAX_VALUE, doubleDecoder.asDouble(Double.MAX_VALUE), 0);
+		assertRejected(() -> doubleDecoder.asDouble(new BigDecimal("1e309")));
+	}
+
+	@Test
+	public void usesTheMatchingDecodingMethod() {
+		assertThrows(IllegalStateException.class, () -> decoder(ValueType.Float).asLong(1));
+		assertThrows(IllegalStateException.class, () -> decoder(ValueType.Integer).asDouble(1));
+		assertEquals("name", decoder(ValueType.String).asObject("name"));
+	}
+
+	@Test
+	public void checksTheNumberOfArguments() {
+		ArgumentDecoder.checkCount(new Object[] { 1, 2 }, 2);
+		ArgumentDecoder.checkCount(new Object[0], 0);
+		ArgumentDecoder.checkCount(null, 0);
+
+		assertRejected(() -> ArgumentDecoder.checkCount(new Object[] { 1 }, 2));
+		assertRejected(() -> ArgumentDecoder.checkCount(new Object[] { 1, 2, 3 }, 2));
+		assertRejected(() -> ArgumentDecoder.checkCount(null, 1));
+	}
+
+	private static ArgumentDecoder decoder(ValueType valueType) {
+		return ArgumentDecoder.of(new Property("Input", valueType));
+	}
+
+	private static void assertRejected(Runnable decoding) {
+		assertThrows(MalformedRequestException.class, decoding::run);
+	}
+}
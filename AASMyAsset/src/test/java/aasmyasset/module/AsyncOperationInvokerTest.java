@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
+import org.eclipse.basyx.submodel.metamodel.api.qualifier.haskind.ModelingKind;
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.operation.IOperationVariable;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.valuetype.ValueType;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.Operation;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.OperationVariable;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
+import org.eclipse.basyx.submodel.restapi.operation.CallbackResponse;
+import org.eclipse.basyx.submodel.restapi.operation.ExecutionState;
+import org.eclipse.basyx.submodel.restapi.operation.InvocationRequest;
+import org.eclipse.basyx.submodel.restapi.operation.InvocationResponse;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import aasmyasset.connection.PooledHttpClient;
+
+/**
+ * Checks the responses, the retention and the callback URLs of {@link AsyncOperationInvoker}.
+ */
+public class AsyncOperationInvokerTest {
+
+	private static final String TWICE = "/submodel/submodelElements/Twice";
+	private static final String BLOCKING = "/submodel/submodelElements/Blocking";
+	private static final String ASYNC = "/invoke?async=true";
+
+	/**
+	 * Nothing listens on port 1, so pushed results are dropped at once.
+	 */
+	private static final String CALLBACK_PREFIX = "http://127.0.0.1:1/results/";
+
+	private SubmodelProvider provider;
+	private CountDownLatch release;
+	private PooledHttpClient callbackClient;
+	private final List<AsyncOperationInvoker> invokers = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		release = new CountDownLatch(1);
+
+		Submodel submodel = new Submodel("Test", new Identifier(IdentifierType.CUSTOM, "urn:test:Test"));
+		submodel.addSubmodelElement(operation("Twice", arguments -> ((Number) arguments[0]).longValue() * 2));
+		submodel.addSubmodelElement(operation("Blocking", arguments -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return ((Number) arguments[0]).longValue();
+		}));
+		provider = new SubmodelProvider(submodel);
+		callbackClient = new PooledHttpClient(1, 1, Duration.ofSeconds(1), Duration.ofSeconds(1));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		release.countDown();
+		invokers.forEach(AsyncOperationInvoker::shutdown);
+		callbackClient.close();
+	}
+
+	@Test
+	public void wrapsResultOfPlainArgumentsInInvocationResponse() throws Exception {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMinutes(1), Collections.emptyList());
+		String requestId = requestIdOf(invoker.invokeOperation(TWICE + ASYNC, 21));
+
+		InvocationResponse response = awaitResponse(invoker, TWICE, requestId);
+		assertEquals(ExecutionState.COMPLETED, response.getExecutionState());
+		assertEquals(requestId, response.getRequestId());
+		assertEquals(42L, ((Number) response.getFirstOutput()).longValue());
+	}
+
+	@Test
+	public void keepsResponseOfInvocationRequest() throws Exception {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMinutes(1), Collections.emptyList());
+		Collection<IOperationVariable> inputs = Collections.singletonList(variable("Input", BigInteger.valueOf(21)));
+		InvocationRequest request = new InvocationRequest("request-1", new ArrayList<>(), inputs, 5000);
+		assertEquals("request-1", requestIdOf(invoker.invokeOperation(TWICE + ASYNC, request)));
+
+		InvocationResponse response = awaitResponse(invoker, TWICE, "request-1");
+		assertEquals(ExecutionState.COMPLETED, response.getExecutionState());
+		assertEquals(42L, ((Number) response.getFirstOutput()).longValue());
+	}
+
+	@Test
+	public void reportsRunningInvocations() {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMinutes(1), Collections.emptyList());
+		String requestId = requestIdOf(invoker.invokeOperation(BLOCKING + ASYNC, 1));
+
+		InvocationResponse response = response(invoker, BLOCKING, requestId);
+		assertTrue(response.getExecutionState() == ExecutionState.INITIATED
+				|| response.getExecutionState() == ExecutionState.RUNNING);
+		assertThrows(ProviderException.class, () -> invoker.getValue(TWICE + "/invocationList/" + requestId));
+	}
+
+	@Test
+	public void rejectsInvocationsBeyondTheLimit() throws Exception {
+		AsyncOperationInvoker invoker = invoker(2, Duration.ofMinutes(1), Collections.emptyList());
+		invoker.invokeOperation(BLOCKING + ASYNC, 1);
+		String requestId = requestIdOf(invoker.invokeOperation(BLOCKING + ASYNC, 2));
+		assertThrows(ProviderException.class, () -> invoker.invokeOperation(BLOCKING + ASYNC, 3));
+
+		// Finished results make room for new invocations.
+		release.countDown();
+		awaitResponse(invoker, BLOCKING, requestId);
+		invoker.invokeOperation(TWICE + ASYNC, 4);
+	}
+
+	@Test
+	public void dropsResultsAfterRetention() throws Exception {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMillis(50), Collections.emptyList());
+		String requestId = requestIdOf(invoker.invokeOperation(TWICE + ASYNC, 1));
+		awaitResponse(invoker, TWICE, requestId);
+
+		Thread.sleep(100);
+		// Left to BaSyx, which doesn't know the request either.
+		assertThrows(ProviderException.class, () -> invoker.getValue(TWICE + "/invocationList/" + requestId));
+	}
+
+	@Test
+	public void rejectsDuplicateRequestIds() {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMinutes(1), Collections.emptyList());
+		Collection<IOperationVariable> inputs = Collections.singletonList(variable("Input", BigInteger.ONE));
+		InvocationRequest request = new InvocationRequest("request-1", new ArrayList<>(), inputs, 5000);
+		invoker.invokeOperation(BLOCKING + ASYNC, request);
+
+		assertThrows(MalformedRequestException.class, () -> invoker.invokeOperation(BLOCKING + ASYNC, request));
+	}
+
+	@Test
+	public void acceptsCallbackUrlsStartingWithPrefix() {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMinutes(1), Arrays.asList(" ", CALLBACK_PREFIX));
+
+		Object response = invoker.invokeOperation(TWICE + ASYNC + "&callbackUrl=" + CALLBACK_PREFIX + "a/./b", 1);
+		assertEquals(CALLBACK_PREFIX + "a/b", CallbackResponse.createAsFacade(map(response)).getCallbackUrl());
+	}
+
+	@Test
+	public void rejectsOtherCallbackUrls() {
+		AsyncOperationInvoker invoker = invoker(10, Duration.ofMinutes(1), Arrays.asList(CALLBACK_PREFIX));
+
+		for (String url : new String[] { "http://127.0.0.2:1/results/a", "http://127.0.0.1:2/results/a",
+				"https://127.0.0.1:1/results/a", "http://127.0.0.1:1/resultsa", "http://127.0.0.1:1/results/../admin",
+				"http://user@127.0.0.1:1/results/a", "ftp://127.0.0.1:1/results/a", "results/a" }) {
+			assertThrows(url, MalformedRequestException.class,
+					() -> invoker.invokeOperation(TWICE + ASYNC + "&callbackUrl=" + url, 1));
+		}
+	}
+
+	@Test
+	public void rejectsCallbacksWhenDisabled() {
+		AsyncOperationInvoker withoutPrefixes = invoker(10, Duration.ofMinutes(1), Collections.emptyList());
+		assertThrows(MalformedRequestException.class,
+				() -> withoutPrefixes.invokeOperation(TWICE + ASYNC + "&callbackUrl=" + CALLBACK_PREFIX, 1));
+
+		AsyncOperationInvoker withoutClient = track(new AsyncOperationInvoker(provider, 1, 10, Duration.ofMinutes(1), null,
+				Arrays.asList(CALLBACK_PREFIX)));
+		assertThrows(MalformedRequestException.class,
+				() -> withoutClient.invokeOperation(TWICE + ASYNC + "&callbackUrl=" + CALLBACK_PREFIX, 1));
+	}
+
+	@Test
+	public void rejectsInvalidPrefixes() {
+		assertThrows(IllegalArgumentException.class, () -> new AsyncOperationInvoker(provider, 1, 10,
+				Duration.ofMinutes(1), callbackClient, Arrays.asList("ftp://127.0.0.1/")));
+	}
+
+	private AsyncOperationInvoker invoker(int maxInvocations, Duration retention, Collection<String> callbackPrefixes) {
+		return track(new AsyncOperationInvoker(provider, 2, maxInvocations, retention, callbackClient, callbackPrefixes));
+	}
+
+	private AsyncOperationInvoker track(AsyncOperationInvoker invoker) {
+		invokers.add(invoker);
+		return invoker;
+	}
+
+	private static InvocationResponse awaitResponse(AsyncOperationInvoker invoker, String operation, String requestId)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (true) {
+			InvocationResponse response = response(invoker, operation, requestId);
+			ExecutionState state = response.getExecutionState();
+			if (state != ExecutionState.INITIATED && state != ExecutionState.RUNNING) {
+				return response;
+			}
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Request " + requestId + " didn't finish.");
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	private static InvocationResponse response(AsyncOperationInvoker invoker, String operation, String requestId) {
+		return InvocationResponse.createAsFacade(map(invoker.getValue(operation + "/invocationList/" + requestId)));
+	}
+
+	private static String requestIdOf(Object callbackResponse) {
+		return CallbackResponse.createAsFacade(map(callbackResponse)).getRequestId();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> map(Object object) {
+		return (Map<String, Object>) object;
+	}
+
+	private static Operation operation(String idShort, Function<Object[], Object> invokable) {
+		Operation operation = new Operation(idShort);
+		operation.setInputVariables(Collections.singletonList(variable("Input", null)));
+		operation.setOutputVariables(Collections.singletonList(variable("Result", null)));
+		operation.setInvokable(invokable);
+		return operation;
+	}
+
+	private static OperationVariable variable(String idShort, Object value) {
+		Property property = new Property(idShort, ValueType.Integer);
+		property.setKind(ModelingKind.TEMPLATE);
+		if (value != null) {
+			property.setValue(value);
+		}
+		return new OperationVariable(property);
+	}
+}
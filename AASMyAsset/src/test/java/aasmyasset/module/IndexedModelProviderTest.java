@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.eclipse.basyx.aas.metamodel.api.parts.asset.AssetKind;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.parts.Asset;
+import org.eclipse.basyx.aas.restapi.AASModelProvider;
+import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElementCollection;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the {@link ElementPathIndex} used by {@link IndexedModelProvider} follows changes of the model, so
+ * that indexed requests never reach elements which were removed from it.
+ */
+public class IndexedModelProviderTest {
+
+	private static final String ELEMENTS = "/aas/submodels/Test/submodel/submodelElements/";
+
+	private MultiSubmodelProvider aasProvider;
+	private ElementPathIndex index;
+	private IndexedModelProvider provider;
+
+	@Before
+	public void setUp() {
+		SubmodelElementCollection collection = new SubmodelElementCollection("Collection");
+		collection.addSubmodelElement(new Property("Alpha", 1));
+
+		Submodel submodel = new Submodel("Test", new Identifier(IdentifierType.CUSTOM, "urn:test:Test"));
+		submodel.addSubmodelElement(new Property("Top", 0));
+		submodel.addSubmodelElement(collection);
+
+		aasProvider = new MultiSubmodelProvider();
+		Asset asset = new Asset("Asset", new Identifier(IdentifierType.CUSTOM, "urn:test:Asset"), AssetKind.INSTANCE);
+		aasProvider.setAssetAdministrationShell(new AASModelProvider(
+				new AssetAdministrationShell("AAS", new Identifier(IdentifierType.CUSTOM, "urn:test:AAS"), asset)));
+		aasProvider.addSubmodel(new SubmodelProvider(submodel));
+
+		index = new ElementPathIndex();
+		index.register(submodel);
+		provider = new IndexedModelProvider(aasProvider, index);
+	}
+
+	@Test
+	public void findsNestedElements() {
+		assertNotNull(index.find(ELEMENTS + "Top/value", "value"));
+		assertNotNull(index.find(ELEMENTS + "Collection/Alpha/value", "value"));
+		assertNull(index.find(ELEMENTS + "Collection/Beta/value", "value"));
+		assertNull(index.find(ELEMENTS + "Top/value?x=1", "value"));
+		assertEquals(1, provider.getValue(ELEMENTS + "Collection/Alpha/value"));
+	}
+
+	@Test
+	public void replacingCollectionValueReindexesItsElements() {
+		provider.setValue(ELEMENTS + "Collection/value", Arrays.asList(new Property("Alpha", 2), new Property("Beta", 3)));
+
+		assertEquals("Replaced element", 2, provider.getValue(ELEMENTS + "Collection/Alpha/value"));
+		assertEquals("Added element", 3, provider.getValue(ELEMENTS + "Collection/Beta/value"));
+
+		// Writes through the index must reach the elements which are now part of the model.
+		provider.setValue(ELEMENTS + "Collection/Alpha/value", 4);
+		assertEquals(4, aasProvider.getValue(ELEMENTS + "Collection/Alpha/value"));
+	}
+
+	@Test
+	public void deletingElementRemovesItFromIndex() {
+		provider.deleteValue(ELEMENTS + "Collection/Alpha");
+
+		assertNull(index.find(ELEMENTS + "Collection/Alpha/value", "value"));
+		assertNotNull(index.find(ELEMENTS + "Top/value", "value"));
+	}
+
+	@Test
+	public void replacingSubmodelDropsIt() {
+		index.remove("Test");
+
+		assertNull(index.find(ELEMENTS + "Top/value", "value"));
+		assertEquals("Answered by the wrapped provider", 0, provider.getValue(ELEMENTS + "Top/value"));
+	}
+}
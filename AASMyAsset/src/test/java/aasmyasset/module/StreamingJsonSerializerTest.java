@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.module;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.junit.Test;
+
+/**
+ * Checks that {@link StreamingJsonSerializer} writes the same JSON as {@link GSONTools}.
+ */
+public class StreamingJsonSerializerTest {
+
+	private final GSONTools gsonTools = new GSONTools(new DefaultTypeFactory());
+	private final StreamingJsonSerializer serializer = new StreamingJsonSerializer();
+
+	@Test
+	public void writesPrimitivesLikeGsonTools() throws IOException {
+		for (Object value : new Object[] { (byte) -1, (short) 2, 3, 4L, 1.5f, 2.5d, Double.NaN, new AtomicLong(5),
+				BigInteger.TEN.pow(30), new BigDecimal("0.10"), true, "<a href='x'>&</a>", "" }) {
+			assertEquals(value.getClass().getSimpleName(), gsonTools.serialize(value), write(value));
+		}
+	}
+
+	@Test
+	public void writesCharactersAsStrings() throws IOException {
+		assertEquals("\"x\"", write('x'));
+		assertEquals("\"\\u003c\"", write('<'));
+		assertEquals("{\"unit\":\"m\"}", write(Collections.singletonMap("unit", 'm')));
+	}
+
+	@Test
+	public void writesMapsAndCollectionsLikeGsonTools() throws IOException {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("left out", null);
+		map.put("list", Arrays.asList(1, "two", null, Collections.emptyMap()));
+		map.put("set", new LinkedHashSet<>(Arrays.asList(1.0f, (short) 2)));
+		map.put("nested", Collections.singletonMap("key", Collections.emptyList()));
+
+		assertEquals(gsonTools.serialize(map), write(map));
+	}
+
+	@Test
+	public void writesSubmodelsLikeGsonTools() throws IOException {
+		Submodel submodel = new Submodel("Test", new Identifier(IdentifierType.CUSTOM, "urn:test:Test"));
+		submodel.addSubmodelElement(new Property("Integer", 1));
+		submodel.addSubmodelElement(new Property("Float", 1.5f));
+		submodel.addSubmodelElement(new Property("String", "text"));
+
+		assertEquals(gsonTools.serialize(submodel), write(submodel));
+	}
+
+	private String write(Object value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serializer.write(value, out);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
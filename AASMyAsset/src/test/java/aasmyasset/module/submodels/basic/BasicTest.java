@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2024 DFKI.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     DFKI - Tapanta Bhanja <tapanta.bhanja@dfki.de>
+ *******************************************************************************/
+package aasmyasset.module.submodels.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.basyx.submodel.metamodel.api.qualifier.haskind.ModelingKind;
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.operation.IOperationVariable;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.valuetype.ValueType;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.OperationVariable;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
+import org.eclipse.basyx.submodel.restapi.operation.InvocationRequest;
+import org.eclipse.basyx.submodel.restapi.operation.InvocationResponse;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import aasmyasset.module.AASServer;
+import aasmyasset.module.Settings;
+
+/**
+ * Invokes the operations of {@link Basic} concurrently, the same as the request threads of the server do, and checks
+ * that every caller gets the result of its own arguments.
+ *
+ * <p>
+ * Every invocation uses distinct arguments, so that an output which is shared between invocations, or an argument
+ * which is read from another invocation, shows as a wrong result.
+ */
+public class BasicTest {
+
+	private static final String ELEMENTS = "/submodel/submodelElements/";
+
+	private static final int THREADS = 16;
+	private static final int INVOCATIONS_PER_THREAD = 500;
+
+	private static SubmodelProvider provider;
+	private static ExecutorService executor;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Settings settings = new Settings();
+		settings.load();
+		// Creates the models and connectors the same as the server, without starting it. The connectors only connect
+		// to the asset when a value is read, which Basic's operations don't do.
+		AASServer.createContext(settings);
+
+		provider = new SubmodelProvider(AASServer.getModels().Basic.getSubmodel());
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void concurrentInvocationsReturnTheirOwnResults() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> callers = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int caller = thread;
+			callers.add(executor.submit((Callable<Void>) () -> {
+				start.await();
+				for (int i = 0; i < INVOCATIONS_PER_THREAD; i++) {
+					invokeAll(caller, i);
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> caller : callers) {
+			caller.get(1, TimeUnit.MINUTES);
+		}
+	}
+
+	@Test
+	public void missingArgumentsAreRejected() {
+		// A plain array of arguments, which BaSyx passes on without checking it against the input variables.
+		assertThrows(MalformedRequestException.class,
+				() -> provider.invokeOperation(ELEMENTS + "Addition/invoke", BigInteger.ONE));
+		assertThrows(MalformedRequestException.class, () -> provider.invokeOperation(ELEMENTS + "Print/invoke"));
+	}
+
+	private static void invokeAll(int caller, int i) {
+		long integerA = caller * 1_000_000_000L + i;
+		long integerB = -(i * 1_000L + caller);
+		Object sum = invoke("Addition", input("IntegerA", ValueType.Integer, BigInteger.valueOf(integerA)),
+				input("IntegerB", ValueType.Integer, BigInteger.valueOf(integerB)));
+		assertEquals("Sum of " + integerA + " and " + integerB, integerA + integerB, ((Number) sum).longValue());
+
+		// Multiples of 1/4 in this range are exact floats, so the difference is exact as well.
+		float floatA = caller * 1_000 + i / 4f;
+		float floatB = i - caller / 4f;
+		Object difference = invoke("Subtraction", input("FloatA", ValueType.Float, floatA),
+				input("FloatB", ValueType.Float, floatB));
+		assertEquals("Difference of " + floatA + " and " + floatB, floatA - floatB, ((Number) difference).floatValue(),
+				0f);
+
+		String name = "caller-" + caller + "-" + i;
+		Object message = invoke("Print", input("name", ValueType.String, name));
+		assertEquals(name, message);
+	}
+
+	/**
+	 * Invokes an operation synchronously, the same as a request to <code>.../invoke</code>.
+	 *
+	 * @return The value of the first output variable.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object invoke(String operation, OperationVariable... inputs) {
+		Collection<IOperationVariable> inputArguments = new ArrayList<>(Arrays.asList(inputs));
+		// The in/out arguments come before the input arguments.
+		InvocationRequest request = new InvocationRequest(operation, new ArrayList<>(), inputArguments, 5000);
+		Object result = provider.invokeOperation(ELEMENTS + operation + "/invoke", request);
+
+		Collection<IOperationVariable> outputs = InvocationResponse.createAsFacade((Map<String, Object>) result)
+				.getOutputArguments();
+		assertEquals(operation + " outputs", 1, outputs.size());
+		return outputs.iterator().next().getValue().getValue();
+	}
+
+	private static OperationVariable input(String idShort, ValueType valueType, Object value) {
+		Property property = new Property(idShort, valueType);
+		property.setKind(ModelingKind.TEMPLATE);
+		property.setValue(value);
+		return new OperationVariable(property);
+	}
+}